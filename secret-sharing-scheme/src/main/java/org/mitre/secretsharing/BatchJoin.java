@@ -0,0 +1,267 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mitre.secretsharing.util.BigIntegers;
+import org.mitre.secretsharing.util.Gf256;
+import org.mitre.secretsharing.util.Gf65521;
+import org.mitre.secretsharing.util.InputValidation;
+import org.mitre.secretsharing.util.Mersenne61;
+
+/**
+ * Joins a batch of secrets for {@link Secrets#joinBatch(List)}.<p>
+ * 
+ * Secrets whose parts have the same type, length, required parts, modulus and set of
+ * X coordinates are joined as a group: the Lagrange weights depend only on those, so they
+ * are computed once per group and each secret in the group costs only its dot products.
+ * @author Robin Kirkman
+ *
+ */
+abstract class BatchJoin {
+	/**
+	 * Orders parts by X coordinate, so that the same set of share holders
+	 * gives the same order of parts
+	 */
+	private static final Comparator<Part> BY_X = new Comparator<Part>() {
+		@Override
+		public int compare(Part o1, Part o2) {
+			return o1.getPoint().getX().compareTo(o2.getPoint().getX());
+		}
+	};
+	
+	/**
+	 * Join a batch of secrets
+	 * @param secrets The parts of each secret
+	 * @return The secrets, in the same order
+	 */
+	static byte[][] join(List<Part[]> secrets) {
+		InputValidation.begin().when(secrets == null, "secrets is null").validate();
+		Part[][] sorted = new Part[secrets.size()][];
+		Map<Key, List<Integer>> groups = new LinkedHashMap<Key, List<Integer>>();
+		for(int i = 0; i < sorted.length; i++) {
+			Part[] parts = secrets.get(i);
+			validate(parts);
+			// any requiredParts parts determine the secret, so the secret is joined from the first that many
+			sorted[i] = Arrays.copyOf(parts, parts[0].getRequiredParts());
+			Arrays.sort(sorted[i], BY_X);
+			Key key = new Key(sorted[i]);
+			List<Integer> group = groups.get(key);
+			if(group == null)
+				groups.put(key, group = new ArrayList<Integer>());
+			group.add(i);
+		}
+		byte[][] result = new byte[sorted.length][];
+		for(List<Integer> group : groups.values()) {
+			Part first = sorted[group.get(0)][0];
+			if(first instanceof PerBytePart)
+				joinPerByte(sorted, group, result);
+			else if(first instanceof Gf256Part)
+				joinGf256(sorted, group, result);
+			else if(first instanceof M61Part)
+				joinM61(sorted, group, result);
+			else if(first instanceof BlockPart)
+				joinBlocks(sorted, group, result);
+			else
+				joinMultibyte(sorted, group, result);
+		}
+		return result;
+	}
+	
+	/**
+	 * Check that the parts of one secret belong together
+	 * @param parts The parts of a secret
+	 */
+	static void validate(Part[] parts) {
+		InputValidation iv = Part.validateConsistent(parts);
+		int requiredParts = parts[0].getRequiredParts();
+		iv
+			.when(parts.length < requiredParts, requiredParts + " parts required but " + parts.length + " parts provided")
+			.validate();
+	}
+	
+	/**
+	 * Check the X coordinates shared by a group, which are in ascending order
+	 * @param parts The parts of one secret in the group
+	 * @param max The largest valid X coordinate, or {@code null} for no limit
+	 */
+	private static void validateX(Part[] parts, BigInteger max) {
+		InputValidation iv = InputValidation.begin();
+		for(int i = 0; i < parts.length; i++) {
+			BigInteger x = parts[i].getPoint().getX();
+			iv.when(x.signum() <= 0 || (max != null && x.compareTo(max) > 0), "X coordinate out of range");
+			iv.when(i > 0 && x.equals(parts[i-1].getPoint().getX()), "duplicate X coordinates");
+		}
+		iv.validate();
+	}
+	
+	private static void joinPerByte(Part[][] sorted, List<Integer> group, byte[][] result) {
+		Part[] first = sorted[group.get(0)];
+		validateX(first, BigInteger.valueOf(Gf65521.P - 1));
+		int[] x = new int[first.length];
+		for(int j = 0; j < x.length; j++)
+			x[j] = first[j].getPoint().getX().intValue();
+		int[] w = LagrangeCache.perByte(x);
+		int length = first[0].getLength();
+		char[][] ys = new char[x.length][];
+		for(int i : group) {
+			for(int j = 0; j < x.length; j++)
+				ys[j] = ((PerBytePart) sorted[i][j]).values();
+			result[i] = new byte[length];
+			PerByteEngine.join(ys, w, 0, length, result[i]);
+		}
+	}
+	
+	private static void joinGf256(Part[][] sorted, List<Integer> group, byte[][] result) {
+		Part[] first = sorted[group.get(0)];
+		validateX(first, BigInteger.valueOf(Gf256.SIZE - 1));
+		int[] x = new int[first.length];
+		for(int j = 0; j < x.length; j++)
+			x[j] = first[j].getPoint().getX().intValue();
+		int[] logw = LagrangeCache.gf256(x);
+		int length = first[0].getLength();
+		byte[][] ys = new byte[x.length][];
+		for(int i : group) {
+			for(int j = 0; j < x.length; j++)
+				ys[j] = BigIntegers.toBytes(sorted[i][j].getPoint().getY(), length);
+			result[i] = new byte[length];
+			Gf256Engine.join(ys, logw, 0, length, result[i]);
+		}
+	}
+	
+	private static void joinM61(Part[][] sorted, List<Integer> group, byte[][] result) {
+		Part[] first = sorted[group.get(0)];
+		validateX(first, BigInteger.valueOf(Mersenne61.P - 1));
+		long[] x = new long[first.length];
+		for(int j = 0; j < x.length; j++)
+			x[j] = first[j].getPoint().getX().longValue();
+		long[] w = LagrangeCache.m61(x);
+		int length = first[0].getLength();
+		int elements = M61Part.elements(length);
+		byte[][] ys = new byte[x.length][];
+		for(int i : group) {
+			for(int j = 0; j < x.length; j++)
+				ys[j] = BigIntegers.toBytes(sorted[i][j].getPoint().getY(), elements * 8);
+			result[i] = new byte[length];
+			M61Engine.join(ys, w, 0, elements, result[i]);
+		}
+	}
+	
+	private static void joinBlocks(Part[][] sorted, List<Integer> group, byte[][] result) {
+		Part[] first = sorted[group.get(0)];
+		int primeId = ((BlockPart) first[0]).getPrimeId();
+		BigInteger prime = BlockPart.prime(primeId);
+		validateX(first, prime.subtract(BigInteger.ONE));
+		BigInteger[] x = new BigInteger[first.length];
+		for(int j = 0; j < x.length; j++)
+			x[j] = first[j].getPoint().getX();
+		BigInteger[] w = LagrangeCache.block(x, prime);
+		int length = first[0].getLength();
+		int blocks = BlockPart.blocks(length, primeId);
+		int width = BlockPart.blockBytes(primeId) + 1;
+		byte[][] ys = new byte[x.length][];
+		for(int i : group) {
+			for(int j = 0; j < x.length; j++)
+				ys[j] = BigIntegers.toBytes(sorted[i][j].getPoint().getY(), blocks * width);
+			result[i] = new byte[length];
+			BlockEngine.join(ys, w, primeId, 0, blocks, result[i]);
+		}
+	}
+	
+	private static void joinMultibyte(Part[][] sorted, List<Integer> group, byte[][] result) {
+		Part[] first = sorted[group.get(0)];
+		BigInteger prime = first[0].getModulus();
+		InputValidation iv = InputValidation.begin();
+		Set<BigInteger> seen = new HashSet<BigInteger>();
+		BigInteger[] x = new BigInteger[first.length];
+		for(int j = 0; j < x.length; j++) {
+			x[j] = first[j].getPoint().getX();
+			iv.when(!seen.add(x[j].mod(prime)), "duplicate X coordinates");
+		}
+		iv.validate();
+		BigInteger[] w = LagrangeCache.multibyte(x, prime);
+		int length = first[0].getLength();
+		BigInteger[] y = new BigInteger[x.length];
+		for(int i : group) {
+			for(int j = 0; j < x.length; j++)
+				y[j] = sorted[i][j].getPoint().getY();
+			byte[] secret = BigIntegers.weightedZero(w, y, prime).toByteArray();
+			result[i] = new byte[length];
+			System.arraycopy(secret, 0, result[i], length - secret.length, secret.length);
+		}
+	}
+	
+	/**
+	 * The properties that determine the Lagrange weights of a secret's parts
+	 * @author Robin Kirkman
+	 *
+	 */
+	private static final class Key {
+		private Class<?> type;
+		private int length;
+		private int requiredParts;
+		private BigInteger modulus;
+		private BigInteger[] x;
+		
+		private Key(Part[] sorted) {
+			type = sorted[0].getClass();
+			length = sorted[0].getLength();
+			requiredParts = sorted[0].getRequiredParts();
+			modulus = sorted[0].getModulus();
+			x = new BigInteger[sorted.length];
+			for(int j = 0; j < x.length; j++)
+				x[j] = sorted[j].getPoint().getX();
+		}
+		
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(new Object[] {type, length, requiredParts, modulus}) ^ Arrays.hashCode(x);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(obj == this)
+				return true;
+			if(!(obj instanceof Key))
+				return false;
+			Key k = (Key) obj;
+			return type == k.type
+				&& length == k.length
+				&& requiredParts == k.requiredParts
+				&& modulus.equals(k.modulus)
+				&& Arrays.equals(x, k.x);
+		}
+	}
+	
+	private BatchJoin() {}
+}
@@ -48,7 +48,9 @@ public class BigPoint {
 	 * @param y The Y coordinate
 	 */
 	public BigPoint(BigInteger x, BigInteger y) {
-		InputValidation.begin().when(x == null, "x is null").when(y == null, "y is null").validate();
+		InputValidation.check(
+			x == null, "x is null",
+			y == null, "y is null");
 		this.x = x;
 		this.y = y;
 	}
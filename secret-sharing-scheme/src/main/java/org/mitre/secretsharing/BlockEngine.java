@@ -0,0 +1,141 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Primitive kernels for splitting and joining {@link BlockPart}s over a range
+ * of block positions, used by {@link Secrets}.<p>
+ * 
+ * The X coordinates are small, so evaluation multiplies by them without reducing
+ * and reduces once per Y coordinate; joining likewise sums the weighted Y coordinates
+ * and reduces once per block.
+ * @author Robin Kirkman
+ *
+ */
+abstract class BlockEngine {
+	/**
+	 * Split a range of the blocks of a secret
+	 * @param secret The secret
+	 * @param from The first block position, inclusive
+	 * @param to The last block position, exclusive
+	 * @param primeId The ID of the prime to share over
+	 * @param x The X coordinates of the parts
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @param ys The Y values of each part, {@code getBlockBytes() + 1} bytes per block
+	 */
+	static void split(byte[] secret, int from, int to, int primeId, BigInteger[] x, int requiredParts, Random rnd, byte[][] ys) {
+		BigInteger prime = BlockPart.prime(primeId);
+		int bytes = BlockPart.blockBytes(primeId);
+		int width = bytes + 1;
+		BigInteger[] coeffs = new BigInteger[requiredParts];
+		byte[] block = new byte[bytes];
+		for(int b = from; b < to; b++) {
+			int off = b * bytes;
+			Arrays.fill(block, (byte) 0);
+			System.arraycopy(secret, off, block, 0, Math.min(bytes, secret.length - off));
+			coeffs[0] = new BigInteger(1, block);
+			// random coefficients below 2^(8*bytes), which is less than the prime
+			for(int d = 1; d < requiredParts; d++)
+				coeffs[d] = new BigInteger(8 * bytes, rnd);
+			for(int j = 0; j < x.length; j++) {
+				// Horner's rule, from the highest power down to the secret
+				BigInteger y = coeffs[requiredParts - 1];
+				for(int d = requiredParts - 2; d >= 0; d--)
+					y = y.multiply(x[j]).add(coeffs[d]);
+				put(y.mod(prime), ys[j], b * width, width);
+			}
+		}
+	}
+	
+	/**
+	 * Join a range of the blocks of a secret
+	 * @param ys The Y values of each part, {@code getBlockBytes() + 1} bytes per block
+	 * @param w The Lagrange weights of the parts
+	 * @param primeId The ID of the prime the blocks were shared over
+	 * @param from The first block position, inclusive
+	 * @param to The last block position, exclusive
+	 * @param secret The secret to write
+	 */
+	static void join(byte[][] ys, BigInteger[] w, int primeId, int from, int to, byte[] secret) {
+		BigInteger prime = BlockPart.prime(primeId);
+		int bytes = BlockPart.blockBytes(primeId);
+		int width = bytes + 1;
+		byte[] block = new byte[bytes];
+		for(int b = from; b < to; b++) {
+			BigInteger s = BigInteger.ZERO;
+			for(int j = 0; j < ys.length; j++) {
+				BigInteger y = new BigInteger(1, Arrays.copyOfRange(ys[j], b * width, (b + 1) * width));
+				s = s.add(w[j].multiply(y));
+			}
+			put(s.mod(prime), block, 0, bytes);
+			int off = b * bytes;
+			System.arraycopy(block, 0, secret, off, Math.min(bytes, secret.length - off));
+		}
+	}
+	
+	/**
+	 * Check whether the blocks of a part agree with the blocks interpolated at its
+	 * X coordinate from other parts, stopping at the first block that disagrees
+	 * @param ys The Y values of the parts interpolated from, {@code getBlockBytes() + 1} bytes per block
+	 * @param w The Lagrange weights of those parts for interpolating at the X coordinate of the part checked
+	 * @param primeId The ID of the prime the blocks were shared over
+	 * @param blocks The number of blocks in each part
+	 * @param y The Y values of the part checked
+	 * @return Whether every block agrees
+	 */
+	static boolean agrees(byte[][] ys, BigInteger[] w, int primeId, int blocks, byte[] y) {
+		BigInteger prime = BlockPart.prime(primeId);
+		int width = BlockPart.blockBytes(primeId) + 1;
+		for(int b = 0; b < blocks; b++) {
+			BigInteger s = new BigInteger(1, Arrays.copyOfRange(y, b * width, (b + 1) * width)).negate();
+			for(int j = 0; j < ys.length; j++)
+				s = s.add(w[j].multiply(new BigInteger(1, Arrays.copyOfRange(ys[j], b * width, (b + 1) * width))));
+			if(s.mod(prime).signum() != 0)
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Write a nonnegative {@link BigInteger} as a fixed-width big-endian value,
+	 * dropping any bytes above the width
+	 * @param v The value
+	 * @param b The array to write
+	 * @param off The offset of the value in the array
+	 * @param width The width of the value
+	 */
+	private static void put(BigInteger v, byte[] b, int off, int width) {
+		byte[] m = v.toByteArray();
+		int n = Math.min(m.length, width);
+		Arrays.fill(b, off, off + width - n, (byte) 0);
+		System.arraycopy(m, m.length - n, b, off + width - n, n);
+	}
+	
+	private BlockEngine() {}
+}
@@ -0,0 +1,170 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+
+import org.mitre.secretsharing.util.InputValidation;
+
+/**
+ * A part of a shared secret that was first cut into fixed-width blocks,
+ * with each block shared over one of a few fixed, well-known primes.<p>
+ * 
+ * Like {@link PerBytePart}, a single X coordinate is used for all Y coordinates.
+ * Each Y coordinate is {@code getBlockBytes() + 1} bytes wide, since the primes
+ * are slightly larger than a block.  Formats refer to the prime by its ID
+ * instead of writing out the modulus.
+ * 
+ * @author Robin Kirkman
+ *
+ */
+public class BlockPart extends Part {
+	/**
+	 * ID of the prime {@code 2^256 + 297}, used for 32-byte blocks
+	 */
+	public static final int PRIME_256 = 0;
+	
+	/**
+	 * ID of the prime {@code 2^512 + 75}, used for 64-byte blocks
+	 */
+	public static final int PRIME_512 = 1;
+	
+	/**
+	 * The block size in bytes for each prime ID
+	 */
+	private static final int[] BLOCK_BYTES = {32, 64};
+	
+	/**
+	 * The prime for each prime ID
+	 */
+	private static final BigInteger[] PRIMES = {
+		BigInteger.ONE.shiftLeft(256).add(BigInteger.valueOf(297)),
+		BigInteger.ONE.shiftLeft(512).add(BigInteger.valueOf(75)),
+	};
+	
+	/**
+	 * Return whether an int is a known prime ID
+	 * @param primeId The prime ID
+	 * @return Whether the ID is known
+	 */
+	public static boolean isPrimeId(int primeId) {
+		return primeId >= 0 && primeId < PRIMES.length;
+	}
+	
+	/**
+	 * Return the prime for a prime ID
+	 * @param primeId The prime ID
+	 * @return The prime
+	 */
+	public static BigInteger prime(int primeId) {
+		if(!isPrimeId(primeId))
+			InputValidation.check(true, "unknown prime ID " + primeId);
+		return PRIMES[primeId];
+	}
+	
+	/**
+	 * Return the block size for a prime ID
+	 * @param primeId The prime ID
+	 * @return The number of secret bytes in each block
+	 */
+	public static int blockBytes(int primeId) {
+		if(!isPrimeId(primeId))
+			InputValidation.check(true, "unknown prime ID " + primeId);
+		return BLOCK_BYTES[primeId];
+	}
+	
+	/**
+	 * Return the number of blocks a secret is cut into
+	 * @param length The number of bytes in the secret
+	 * @param primeId The prime ID
+	 * @return The number of blocks, the last of which may be partial
+	 */
+	public static int blocks(int length, int primeId) {
+		int b = blockBytes(primeId);
+		return (length + b - 1) / b;
+	}
+	
+	/**
+	 * The ID of the prime this part was shared over
+	 */
+	private int primeId;
+	
+	/**
+	 * Create a {@link BlockPart} to hold a block secret part
+	 * @param version The version this part was formatted with
+	 * @param length The number of bytes in the secret
+	 * @param requiredParts How many parts are required to reconstruct the secret
+	 * @param primeId The ID of the prime the blocks were shared over
+	 * @param point The {@link BigPoint} representing this secret part
+	 */
+	public BlockPart(int version, int length, int requiredParts, int primeId, BigPoint point) {
+		super(version, length, requiredParts, prime(primeId), point);
+		this.primeId = primeId;
+	}
+	
+	/**
+	 * Return the ID of the prime this part was shared over
+	 * @return The prime ID
+	 */
+	public int getPrimeId() {
+		return primeId;
+	}
+	
+	/**
+	 * Return the number of secret bytes in each block
+	 * @return The block size
+	 */
+	public int getBlockBytes() {
+		return BLOCK_BYTES[primeId];
+	}
+	
+	/**
+	 * Create a {@link BlockPart} whose point is held by a {@link PrivateSecretPart} subclass
+	 * @param version The version this part was formatted with
+	 * @param length The number of bytes in the secret
+	 * @param requiredParts How many parts are required to reconstruct the secret
+	 * @param primeId The ID of the prime the blocks were shared over
+	 * @param privatePart The private part holding the point
+	 */
+	BlockPart(int version, int length, int requiredParts, int primeId, PrivateSecretPart privatePart) {
+		super(version, length, requiredParts, prime(primeId), privatePart);
+		this.primeId = primeId;
+	}
+	
+	@Override
+	public byte[] join(Part... otherParts) {
+		InputValidation iv = InputValidation.begin()
+			.when(otherParts == null, "otherParts is null")
+			.validate();
+		BlockPart[] parts = new BlockPart[otherParts.length + 1];
+		parts[0] = this;
+		for(int i = 0; i < otherParts.length; i++) {
+			iv
+				.when(!(otherParts[i] instanceof BlockPart), "cannot apply block join to other parts")
+				.validate();
+			parts[i+1] = (BlockPart) otherParts[i];
+		}
+		return Secrets.joinBlocks(parts);
+	}
+}
@@ -0,0 +1,211 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.mitre.secretsharing.util.BigIntegers;
+import org.mitre.secretsharing.util.Gf256;
+import org.mitre.secretsharing.util.InputValidation;
+
+/**
+ * Checks the parts of a secret beyond the first {@link Part#getRequiredParts()}, which are
+ * all that {@link Secrets} joins from, for {@link Secrets#inconsistentParts(Part[])}.<p>
+ * 
+ * Each further part is checked by interpolating the polynomial through the first {@code k}
+ * parts at its X coordinate.  The Lagrange weight of {@code x[j]} for interpolating at {@code xe}
+ * is {@code l * c[j] / (xe - x[j])}, where {@code l} is the product of every {@code xe - x[j]}
+ * and the barycentric weight {@code c[j]} is the inverse of the product of {@code x[j] - x[i]}
+ * for every {@code i != j}.  The barycentric weights are computed once, so the weights for each
+ * further part take {@code O(k)} multiplications and one inversion, and checking the part costs
+ * no more than a {@code k}-part join, and less when it disagrees early.
+ * @author Robin Kirkman
+ *
+ */
+abstract class ConsistencyCheck {
+	/**
+	 * Find the parts after the first {@link Part#getRequiredParts()} that disagree with them
+	 * @param parts The parts of a secret
+	 * @return A new array of the parts that disagree, in the order given
+	 */
+	static Part[] check(Part[] parts) {
+		BatchJoin.validate(parts);
+		validateX(parts);
+		List<Part> inconsistent = new ArrayList<Part>();
+		if(parts[0] instanceof Gf256Part)
+			checkGf256(parts, inconsistent);
+		else
+			checkPrime(parts, inconsistent);
+		return inconsistent.toArray(new Part[inconsistent.size()]);
+	}
+	
+	/**
+	 * Check that the X coordinates of the parts are in range and distinct
+	 * @param parts The parts of a secret
+	 */
+	private static void validateX(Part[] parts) {
+		Part first = parts[0];
+		BigInteger max = null;
+		BigInteger m = first.getModulus();
+		if(first instanceof PerBytePart || first instanceof M61Part || first instanceof BlockPart)
+			max = m.subtract(BigInteger.ONE);
+		else if(first instanceof Gf256Part) {
+			max = BigInteger.valueOf(Gf256.SIZE - 1);
+			m = null;
+		}
+		InputValidation iv = InputValidation.begin();
+		Set<BigInteger> seen = new HashSet<BigInteger>();
+		for(Part part : parts) {
+			BigInteger x = part.getPoint().getX();
+			iv.when(max != null && (x.signum() <= 0 || x.compareTo(max) > 0), "X coordinate out of range");
+			iv.when(!seen.add(m == null ? x : x.mod(m)), "duplicate X coordinates");
+		}
+		iv.validate();
+	}
+	
+	/**
+	 * Check the further parts of a secret shared over a prime field
+	 * @param parts The parts of the secret
+	 * @param inconsistent The list of parts that disagree, to add to
+	 */
+	private static void checkPrime(Part[] parts, List<Part> inconsistent) {
+		Part first = parts[0];
+		int k = first.getRequiredParts();
+		int length = first.getLength();
+		BigInteger p = first.getModulus();
+		int primeId = (first instanceof BlockPart ? ((BlockPart) first).getPrimeId() : -1);
+		int width = 0;
+		if(first instanceof M61Part)
+			width = M61Part.elements(length) * 8;
+		else if(first instanceof BlockPart)
+			width = BlockPart.blocks(length, primeId) * (BlockPart.blockBytes(primeId) + 1);
+		
+		BigInteger[] x = new BigInteger[k];
+		char[][] values = new char[k][];
+		byte[][] ys = new byte[k][];
+		BigInteger[] y = new BigInteger[k];
+		for(int j = 0; j < k; j++) {
+			x[j] = parts[j].getPoint().getX().mod(p);
+			if(first instanceof PerBytePart)
+				values[j] = ((PerBytePart) parts[j]).values();
+			else if(width > 0)
+				ys[j] = BigIntegers.toBytes(parts[j].getPoint().getY(), width);
+			else
+				y[j] = parts[j].getPoint().getY();
+		}
+		
+		// c[j] is the inverse of the product of x[j] - x[i] for every i != j
+		BigInteger[] d = new BigInteger[k];
+		for(int j = 0; j < k; j++) {
+			d[j] = BigInteger.ONE;
+			for(int i = 0; i < k; i++) {
+				if(i != j)
+					d[j] = d[j].multiply(x[j].subtract(x[i])).mod(p);
+			}
+		}
+		BigInteger[] c = BigIntegers.modInverse(d, p);
+		
+		for(int e = k; e < parts.length; e++) {
+			Part part = parts[e];
+			BigInteger xe = part.getPoint().getX().mod(p);
+			BigInteger l = BigInteger.ONE;
+			for(int j = 0; j < k; j++) {
+				d[j] = xe.subtract(x[j]).mod(p);
+				l = l.multiply(d[j]).mod(p);
+			}
+			BigInteger[] w = BigIntegers.modInverse(d, p);
+			for(int j = 0; j < k; j++)
+				w[j] = w[j].multiply(c[j]).mod(p).multiply(l).mod(p);
+			
+			boolean agrees;
+			if(first instanceof PerBytePart) {
+				int[] iw = new int[k];
+				for(int j = 0; j < k; j++)
+					iw[j] = w[j].intValue();
+				agrees = PerByteEngine.agrees(values, iw, ((PerBytePart) part).values());
+			} else if(first instanceof M61Part) {
+				long[] lw = new long[k];
+				for(int j = 0; j < k; j++)
+					lw[j] = w[j].longValue();
+				agrees = M61Engine.agrees(ys, lw, width / 8, BigIntegers.toBytes(part.getPoint().getY(), width));
+			} else if(first instanceof BlockPart) {
+				int blocks = BlockPart.blocks(length, primeId);
+				agrees = BlockEngine.agrees(ys, w, primeId, blocks, BigIntegers.toBytes(part.getPoint().getY(), width));
+			} else {
+				BigInteger s = part.getPoint().getY().negate();
+				for(int j = 0; j < k; j++)
+					s = s.add(w[j].multiply(y[j]));
+				agrees = s.mod(p).signum() == 0;
+			}
+			if(!agrees)
+				inconsistent.add(part);
+		}
+	}
+	
+	/**
+	 * Check the further parts of a secret shared over GF(2^8)
+	 * @param parts The parts of the secret
+	 * @param inconsistent The list of parts that disagree, to add to
+	 */
+	private static void checkGf256(Part[] parts, List<Part> inconsistent) {
+		int k = parts[0].getRequiredParts();
+		int length = parts[0].getLength();
+		int[] x = new int[k];
+		byte[][] ys = new byte[k][];
+		for(int j = 0; j < k; j++) {
+			x[j] = parts[j].getPoint().getX().intValue();
+			ys[j] = BigIntegers.toBytes(parts[j].getPoint().getY(), length);
+		}
+		
+		// the logarithm of c[j], the inverse of the product of x[j] - x[i] for every i != j
+		int[] logc = new int[k];
+		for(int j = 0; j < k; j++) {
+			int lc = 0;
+			for(int i = 0; i < k; i++) {
+				if(i != j)
+					lc += 255 - Gf256.log(x[j] ^ x[i]);
+			}
+			logc[j] = lc % 255;
+		}
+		
+		int[] logw = new int[k];
+		for(int e = k; e < parts.length; e++) {
+			Part part = parts[e];
+			int xe = part.getPoint().getX().intValue();
+			int logl = 0;
+			for(int j = 0; j < k; j++)
+				logl += Gf256.log(xe ^ x[j]);
+			for(int j = 0; j < k; j++)
+				logw[j] = (logl + logc[j] + 255 - Gf256.log(xe ^ x[j])) % 255;
+			if(!Gf256Engine.agrees(ys, logw, BigIntegers.toBytes(part.getPoint().getY(), length)))
+				inconsistent.add(part);
+		}
+	}
+	
+	private ConsistencyCheck() {}
+}
@@ -0,0 +1,112 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.util.Random;
+
+import org.mitre.secretsharing.util.Gf256;
+
+/**
+ * Primitive kernels for splitting and joining {@link Gf256Part}s over a range
+ * of byte positions, used by {@link Secrets}
+ * @author Robin Kirkman
+ *
+ */
+abstract class Gf256Engine {
+	/**
+	 * The number of secret bytes for which random coefficients are generated at once
+	 */
+	private static final int CHUNK = 4096;
+	
+	/**
+	 * Split a range of the bytes of a secret
+	 * @param secret The secret
+	 * @param from The first byte position, inclusive
+	 * @param to The last byte position, exclusive
+	 * @param logx The logarithms of the X coordinates of the parts
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @param ys The Y values of each part
+	 */
+	static void split(byte[] secret, int from, int to, int[] logx, int requiredParts, Random rnd, byte[][] ys) {
+		int degree = requiredParts - 1;
+		int chunk = Math.max(1, Math.min(to - from, CHUNK));
+		byte[] coeffs = new byte[chunk * degree];
+		for(int off = from; off < to; off += chunk) {
+			int len = Math.min(chunk, to - off);
+			rnd.nextBytes(coeffs);
+			for(int j = 0; j < ys.length; j++) {
+				byte[] yj = ys[j];
+				int lx = logx[j];
+				for(int i = 0; i < len; i++) {
+					int c = i * degree;
+					// Horner's rule, from the highest power down to the secret
+					int y = 0;
+					for(int d = degree - 1; d >= 0; d--)
+						y = Gf256.mulLog(y, lx) ^ (0xFF & coeffs[c + d]);
+					yj[off + i] = (byte)(Gf256.mulLog(y, lx) ^ (0xFF & secret[off + i]));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Join a range of the bytes of a secret
+	 * @param ys The Y values of each part
+	 * @param logw The logarithms of the Lagrange weights of the parts
+	 * @param from The first byte position, inclusive
+	 * @param to The last byte position, exclusive
+	 * @param secret The secret to write
+	 */
+	static void join(byte[][] ys, int[] logw, int from, int to, byte[] secret) {
+		for(int i = from; i < to; i++) {
+			int s = 0;
+			for(int j = 0; j < ys.length; j++)
+				s ^= Gf256.mulLog(0xFF & ys[j][i], logw[j]);
+			secret[i] = (byte) s;
+		}
+	}
+	
+	/**
+	 * Check whether the Y values of a part agree with the values interpolated at its
+	 * X coordinate from other parts, stopping at the first byte position that disagrees
+	 * @param ys The Y values of the parts interpolated from
+	 * @param logw The logarithms of the Lagrange weights of those parts for interpolating
+	 * at the X coordinate of the part checked
+	 * @param y The Y values of the part checked
+	 * @return Whether every Y value agrees
+	 */
+	static boolean agrees(byte[][] ys, int[] logw, byte[] y) {
+		for(int i = 0; i < y.length; i++) {
+			int s = 0;
+			for(int j = 0; j < ys.length; j++)
+				s ^= Gf256.mulLog(0xFF & ys[j][i], logw[j]);
+			if(s != (0xFF & y[i]))
+				return false;
+		}
+		return true;
+	}
+	
+	private Gf256Engine() {}
+}
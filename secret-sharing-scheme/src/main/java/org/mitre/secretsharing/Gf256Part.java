@@ -0,0 +1,83 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+
+import org.mitre.secretsharing.util.Gf256;
+import org.mitre.secretsharing.util.InputValidation;
+
+/**
+ * A part of a shared secret that was first split into individual bytes,
+ * with each byte shared over the finite field GF(2^8).<p>
+ * 
+ * Like {@link PerBytePart}, a single X coordinate is used for all Y coordinates,
+ * but each Y coordinate is a single byte, so the part is the same size as the secret.
+ * The "modulus" of a {@link Gf256Part} is the reducing polynomial of the field.
+ * 
+ * @author Robin Kirkman
+ *
+ */
+public class Gf256Part extends Part {
+	public static final BigInteger MODULUS = BigInteger.valueOf(Gf256.POLYNOMIAL);
+	public static final int MAX_PARTS = Gf256.SIZE - 1;
+	
+	/**
+	 * Create a {@link Gf256Part} to hold a GF(2^8) per-byte secret part
+	 * @param version The version this part was formatted with
+	 * @param length The number of bytes in the secret
+	 * @param requiredParts How many parts are required to reconstruct the secret
+	 * @param point The {@link BigPoint} representing this secret part
+	 */
+	public Gf256Part(int version, int length, int requiredParts, BigPoint point) {
+		super(version, length, requiredParts, MODULUS, point);
+	}
+	
+	/**
+	 * Create a {@link Gf256Part} whose point is held by a {@link PrivateSecretPart} subclass
+	 * @param version The version this part was formatted with
+	 * @param length The number of bytes in the secret
+	 * @param requiredParts How many parts are required to reconstruct the secret
+	 * @param privatePart The private part holding the point
+	 */
+	Gf256Part(int version, int length, int requiredParts, PrivateSecretPart privatePart) {
+		super(version, length, requiredParts, MODULUS, privatePart);
+	}
+	
+	@Override
+	public byte[] join(Part... otherParts) {
+		InputValidation iv = InputValidation.begin()
+			.when(otherParts == null, "otherParts is null")
+			.validate();
+		Gf256Part[] parts = new Gf256Part[otherParts.length + 1];
+		parts[0] = this;
+		for(int i = 0; i < otherParts.length; i++) {
+			iv
+				.when(!(otherParts[i] instanceof Gf256Part), "cannot apply gf256 join to other parts")
+				.validate();
+			parts[i+1] = (Gf256Part) otherParts[i];
+		}
+		return Secrets.joinGf256(parts);
+	}
+}
@@ -0,0 +1,268 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mitre.secretsharing.util.BigIntegers;
+import org.mitre.secretsharing.util.Gf256;
+import org.mitre.secretsharing.util.InputValidation;
+
+/**
+ * Collects the {@link Part}s of a secret one at a time, as share holders submit them,
+ * and reconstructs the secret as soon as enough have arrived.<p>
+ * 
+ * Each part is checked against the first part when it is added.  The Lagrange weights for
+ * interpolating the secret are kept up to date as parts arrive: adding the {@code n}th part
+ * rescales the {@code n - 1} weights so far and computes its own, which is {@code O(n)}
+ * multiplications and one inversion.  When the {@link Part#getRequiredParts()}th part arrives,
+ * the secret is joined from those weights at once.  Parts added after that are checked
+ * and kept, but not used.
+ * @author Robin Kirkman
+ *
+ */
+public class JoinAccumulator {
+	/**
+	 * The parts added so far
+	 */
+	private List<Part> parts = new ArrayList<Part>();
+	/**
+	 * The weights of the parts used, modulo the prime of the parts, for every type but {@link Gf256Part}
+	 */
+	private BigInteger[] weights;
+	/**
+	 * The X coordinates of the parts used, modulo the prime of the parts
+	 */
+	private BigInteger[] x;
+	/**
+	 * The weights of the parts used, for {@link Gf256Part}s
+	 */
+	private int[] gf256Weights;
+	/**
+	 * The reconstructed secret, once complete
+	 */
+	private byte[] secret;
+	
+	/**
+	 * Create an empty {@link JoinAccumulator}
+	 */
+	public JoinAccumulator() {
+	}
+	
+	/**
+	 * Add a part.  A part that does not belong with the parts already added is rejected,
+	 * and the accumulator is unchanged.
+	 * @param part The part to add
+	 * @return Whether the secret can now be reconstructed, as {@link #isComplete()}
+	 */
+	public boolean add(Part part) {
+		validate(part);
+		int n = parts.size();
+		if(n == 0) {
+			int k = part.getRequiredParts();
+			if(part instanceof Gf256Part)
+				gf256Weights = new int[k];
+			else {
+				weights = new BigInteger[k];
+				x = new BigInteger[k];
+			}
+		}
+		parts.add(part);
+		if(n < part.getRequiredParts()) {
+			if(part instanceof Gf256Part)
+				addGf256(n, part.getPoint().getX().intValue());
+			else
+				addPrime(n, part.getPoint().getX().mod(part.getModulus()), part.getModulus());
+			if(n + 1 == part.getRequiredParts())
+				secret = join();
+		}
+		return isComplete();
+	}
+	
+	/**
+	 * Return whether enough parts have been added to reconstruct the secret
+	 * @return {@code true} if {@link #getSecret()} may be called
+	 */
+	public boolean isComplete() {
+		return secret != null;
+	}
+	
+	/**
+	 * Return the number of parts added
+	 * @return The number of parts
+	 */
+	public int size() {
+		return parts.size();
+	}
+	
+	/**
+	 * Return the number of parts required to reconstruct the secret
+	 * @return The number of required parts, or {@code -1} if no parts have been added
+	 */
+	public int getRequiredParts() {
+		return parts.isEmpty() ? -1 : parts.get(0).getRequiredParts();
+	}
+	
+	/**
+	 * Return the parts added, in the order they were added
+	 * @return A new array of {@link Part}s
+	 */
+	public Part[] getParts() {
+		return parts.toArray(new Part[parts.size()]);
+	}
+	
+	/**
+	 * Return the reconstructed secret
+	 * @return A new copy of the secret
+	 * @throws IllegalStateException If too few parts have been added
+	 */
+	public byte[] getSecret() {
+		if(!isComplete())
+			throw new IllegalStateException(getRequiredParts() < 0 ? "no parts added" : getRequiredParts() + " parts required but " + size() + " parts added");
+		return secret.clone();
+	}
+	
+	/**
+	 * Check that a part belongs with the parts already added
+	 * @param part The part
+	 */
+	private void validate(Part part) {
+		InputValidation iv = InputValidation.begin()
+			.when(part == null, "part is null")
+			.validate();
+		BigInteger px = part.getPoint().getX();
+		BigInteger max = null;
+		if(part instanceof PerBytePart || part instanceof M61Part || part instanceof BlockPart)
+			max = part.getModulus().subtract(BigInteger.ONE);
+		else if(part instanceof Gf256Part)
+			max = BigInteger.valueOf(Gf256.SIZE - 1);
+		iv.when(max != null && (px.signum() <= 0 || px.compareTo(max) > 0), "X coordinate out of range");
+		if(!parts.isEmpty()) {
+			Part first = parts.get(0);
+			Part.whenInconsistent(iv, part, first);
+			BigInteger m = first.getModulus();
+			for(Part p : parts) {
+				BigInteger x = p.getPoint().getX();
+				iv.when(x.equals(px) || (max == null && x.subtract(px).mod(m).signum() == 0), "duplicate X coordinates");
+			}
+		}
+		iv.validate();
+	}
+	
+	/**
+	 * Update the weights for a new part over a prime field
+	 * @param n The index of the new part
+	 * @param xn The X coordinate of the new part, reduced modulo {@code p}
+	 * @param p The prime
+	 */
+	private void addPrime(int n, BigInteger xn, BigInteger p) {
+		// weight j is the product of x[i] / (x[i] - x[j]) for every i != j
+		BigInteger[] d = new BigInteger[n];
+		for(int j = 0; j < n; j++)
+			d[j] = xn.subtract(x[j]).mod(p);
+		BigInteger[] inv = BigIntegers.modInverse(d, p);
+		BigInteger wn = BigInteger.ONE;
+		for(int j = 0; j < n; j++) {
+			weights[j] = weights[j].multiply(xn).mod(p).multiply(inv[j]).mod(p);
+			wn = wn.multiply(x[j]).mod(p).multiply(p.subtract(inv[j])).mod(p);
+		}
+		x[n] = xn;
+		weights[n] = wn;
+	}
+	
+	/**
+	 * Update the weights for a new part over GF(2^8)
+	 * @param n The index of the new part
+	 * @param xn The X coordinate of the new part
+	 */
+	private void addGf256(int n, int xn) {
+		int wn = 1;
+		for(int j = 0; j < n; j++) {
+			int xj = parts.get(j).getPoint().getX().intValue();
+			gf256Weights[j] = Gf256.mul(gf256Weights[j], Gf256.div(xn, xn ^ xj));
+			wn = Gf256.mul(wn, Gf256.div(xj, xj ^ xn));
+		}
+		gf256Weights[n] = wn;
+	}
+	
+	/**
+	 * Join the secret from the weights of the first {@link #getRequiredParts()} parts
+	 * @return The secret
+	 */
+	private byte[] join() {
+		Part first = parts.get(0);
+		int k = first.getRequiredParts();
+		int length = first.getLength();
+		byte[] result = new byte[length];
+		if(first instanceof PerBytePart) {
+			int[] w = new int[k];
+			char[][] ys = new char[k][];
+			for(int j = 0; j < k; j++) {
+				w[j] = weights[j].intValue();
+				ys[j] = ((PerBytePart) parts.get(j)).values();
+			}
+			PerByteEngine.join(ys, w, 0, length, result);
+		} else if(first instanceof Gf256Part) {
+			int[] logw = new int[k];
+			byte[][] ys = new byte[k][];
+			for(int j = 0; j < k; j++) {
+				logw[j] = Gf256.log(gf256Weights[j]);
+				ys[j] = BigIntegers.toBytes(parts.get(j).getPoint().getY(), length);
+			}
+			Gf256Engine.join(ys, logw, 0, length, result);
+		} else if(first instanceof M61Part) {
+			int elements = M61Part.elements(length);
+			long[] w = new long[k];
+			byte[][] ys = new byte[k][];
+			for(int j = 0; j < k; j++) {
+				w[j] = weights[j].longValue();
+				ys[j] = BigIntegers.toBytes(parts.get(j).getPoint().getY(), elements * 8);
+			}
+			M61Engine.join(ys, w, 0, elements, result);
+		} else if(first instanceof BlockPart) {
+			int primeId = ((BlockPart) first).getPrimeId();
+			int blocks = BlockPart.blocks(length, primeId);
+			int width = BlockPart.blockBytes(primeId) + 1;
+			byte[][] ys = new byte[k][];
+			for(int j = 0; j < k; j++)
+				ys[j] = BigIntegers.toBytes(parts.get(j).getPoint().getY(), blocks * width);
+			BlockEngine.join(ys, weights, primeId, 0, blocks, result);
+		} else {
+			BigInteger[] w = new BigInteger[k + 1];
+			BigInteger[] y = new BigInteger[k];
+			for(int j = 0; j < k; j++) {
+				w[j] = weights[j];
+				y[j] = parts.get(j).getPoint().getY();
+			}
+			w[k] = BigInteger.ONE;
+			byte[] s = BigIntegers.weightedZero(w, y, first.getModulus()).toByteArray();
+			int n = Math.min(s.length, length);
+			System.arraycopy(s, s.length - n, result, length - n, n);
+		}
+		return result;
+	}
+}
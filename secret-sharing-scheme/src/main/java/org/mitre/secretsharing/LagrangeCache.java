@@ -0,0 +1,431 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.mitre.secretsharing.util.BigIntegers;
+import org.mitre.secretsharing.util.Gf256;
+import org.mitre.secretsharing.util.Gf65521;
+import org.mitre.secretsharing.util.InputValidation;
+import org.mitre.secretsharing.util.Mersenne61;
+
+/**
+ * A bounded, thread-safe, least-recently-used cache of the Lagrange weights used to
+ * interpolate secrets, keyed by the field and the set of X coordinates of the parts.<p>
+ * 
+ * The weights depend only on which share holders take part in a join, and not on the secret,
+ * so a service that sees the same few sets of share holders can compute them once.
+ * A cache is used by the join methods of {@link Secrets}, {@link ShareSet} and
+ * {@link Secrets#joinBatch(java.util.List)} once it is installed with
+ * {@link Secrets#setLagrangeCache(LagrangeCache)}.<p>
+ * 
+ * Entries are evicted least recently used first when there are more than {@code maxEntries}
+ * of them, or when their total weight, an estimate in bytes of their size, exceeds {@code maxWeight}.
+ * @author Robin Kirkman
+ *
+ */
+public class LagrangeCache {
+	private static final int PER_BYTE = 0;
+	private static final int GF256 = 1;
+	private static final int M61 = 2;
+	private static final int BLOCK = 3;
+	private static final int MULTIBYTE = 4;
+	
+	/**
+	 * Estimated size in bytes of an entry apart from its arrays
+	 */
+	private static final long ENTRY_WEIGHT = 96;
+	
+	/**
+	 * Compute weights for {@link Secrets#joinPerByte(PerBytePart[])}, from the installed cache if there is one
+	 * @param x The X coordinates
+	 * @return The weights, in the order of {@code x}
+	 * @see Gf65521#lagrangeWeights(int[])
+	 */
+	static int[] perByte(int[] x) {
+		LagrangeCache cache = Secrets.getLagrangeCache();
+		return cache == null ? Gf65521.lagrangeWeights(x) : cache.ints(PER_BYTE, x);
+	}
+	
+	/**
+	 * Compute logarithms of weights for {@link Secrets#joinGf256(Gf256Part[])}, from the installed cache if there is one
+	 * @param x The X coordinates
+	 * @return The logarithms of the weights, in the order of {@code x}
+	 * @see Gf256#lagrangeLogWeights(int[])
+	 */
+	static int[] gf256(int[] x) {
+		LagrangeCache cache = Secrets.getLagrangeCache();
+		return cache == null ? Gf256.lagrangeLogWeights(x) : cache.ints(GF256, x);
+	}
+	
+	/**
+	 * Compute weights for {@link Secrets#joinM61(M61Part[])}, from the installed cache if there is one
+	 * @param x The X coordinates
+	 * @return The weights, in the order of {@code x}
+	 * @see Mersenne61#lagrangeWeights(long[])
+	 */
+	static long[] m61(long[] x) {
+		LagrangeCache cache = Secrets.getLagrangeCache();
+		return cache == null ? Mersenne61.lagrangeWeights(x) : cache.longs(x);
+	}
+	
+	/**
+	 * Compute weights for {@link Secrets#joinBlocks(BlockPart[])}, from the installed cache if there is one
+	 * @param x The X coordinates
+	 * @param prime The block prime
+	 * @return The weights, in the order of {@code x}
+	 * @see BigIntegers#lagrangeWeights(BigInteger[], BigInteger)
+	 */
+	static BigInteger[] block(BigInteger[] x, BigInteger prime) {
+		LagrangeCache cache = Secrets.getLagrangeCache();
+		return cache == null ? BigIntegers.lagrangeWeights(x, prime) : cache.bigs(BLOCK, x, prime);
+	}
+	
+	/**
+	 * Compute weights for {@link Secrets#joinMultibyte(Part[])}, from the installed cache if there is one
+	 * @param x The X coordinates
+	 * @param prime The prime modulus
+	 * @return The weights, in the order of {@code x}, followed by their multiplier
+	 * @see BigIntegers#lagrangeZeroWeights(BigInteger[], BigInteger)
+	 */
+	static BigInteger[] multibyte(BigInteger[] x, BigInteger prime) {
+		LagrangeCache cache = Secrets.getLagrangeCache();
+		return cache == null ? BigIntegers.lagrangeZeroWeights(x, prime) : cache.bigs(MULTIBYTE, x, prime);
+	}
+	
+	/**
+	 * The maximum number of entries
+	 */
+	private final int maxEntries;
+	/**
+	 * The maximum total weight of the entries
+	 */
+	private final long maxWeight;
+	/**
+	 * The entries, in access order
+	 */
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+	/**
+	 * The total weight of the entries
+	 */
+	private long weight;
+	private long hits;
+	private long misses;
+	private long evictions;
+	
+	/**
+	 * Create a {@link LagrangeCache} bounded only by its number of entries
+	 * @param maxEntries The maximum number of entries
+	 */
+	public LagrangeCache(int maxEntries) {
+		this(maxEntries, Long.MAX_VALUE);
+	}
+	
+	/**
+	 * Create a {@link LagrangeCache} bounded by its number of entries and their total weight
+	 * @param maxEntries The maximum number of entries
+	 * @param maxWeight The maximum total weight, in estimated bytes, of the entries
+	 */
+	public LagrangeCache(int maxEntries, long maxWeight) {
+		InputValidation.begin()
+			.when(maxEntries < 1, "maxEntries is less than 1")
+			.when(maxWeight < 1, "maxWeight is less than 1")
+			.validate();
+		this.maxEntries = maxEntries;
+		this.maxWeight = maxWeight;
+	}
+	
+	/**
+	 * Return the maximum number of entries
+	 * @return The maximum number of entries
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+	
+	/**
+	 * Return the maximum total weight of the entries
+	 * @return The maximum weight, in estimated bytes
+	 */
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+	
+	/**
+	 * Return the number of entries
+	 * @return The number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Return the total weight of the entries
+	 * @return The weight, in estimated bytes
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+	
+	/**
+	 * Return the number of lookups that found their weights in the cache
+	 * @return The number of hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * Return the number of lookups that had to compute their weights
+	 * @return The number of misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * Return the number of entries evicted to stay within the bounds
+	 * @return The number of evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+	
+	/**
+	 * Remove every entry.  The counters are not reset.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		weight = 0;
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return "LagrangeCache[size=" + entries.size() + ", weight=" + weight + ", hits=" + hits
+			+ ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+	
+	private int[] ints(int type, int[] x) {
+		long[] lx = new long[x.length];
+		for(int i = 0; i < x.length; i++)
+			lx[i] = x[i];
+		int[] order = order(lx);
+		Key key = new Key(type, null, sorted(lx, order));
+		int[] sw = (int[]) get(key);
+		if(sw == null) {
+			int[] sx = new int[x.length];
+			for(int r = 0; r < x.length; r++)
+				sx[r] = x[order[r]];
+			sw = (type == PER_BYTE ? Gf65521.lagrangeWeights(sx) : Gf256.lagrangeLogWeights(sx));
+			put(key, sw, 12L * x.length);
+		}
+		int[] w = new int[x.length];
+		for(int r = 0; r < x.length; r++)
+			w[order[r]] = sw[r];
+		return w;
+	}
+	
+	private long[] longs(long[] x) {
+		int[] order = order(x);
+		long[] sx = sorted(x, order);
+		Key key = new Key(M61, null, sx);
+		long[] sw = (long[]) get(key);
+		if(sw == null) {
+			sw = Mersenne61.lagrangeWeights(sx);
+			put(key, sw, 16L * x.length);
+		}
+		long[] w = new long[x.length];
+		for(int r = 0; r < x.length; r++)
+			w[order[r]] = sw[r];
+		return w;
+	}
+	
+	private BigInteger[] bigs(int type, BigInteger[] x, BigInteger prime) {
+		int[] order = order(x);
+		BigInteger[] sx = new BigInteger[x.length];
+		for(int r = 0; r < x.length; r++)
+			sx[r] = x[order[r]];
+		Key key = new Key(type, prime, sx);
+		BigInteger[] sw = (BigInteger[]) get(key);
+		if(sw == null) {
+			sw = (type == BLOCK ? BigIntegers.lagrangeWeights(sx, prime) : BigIntegers.lagrangeZeroWeights(sx, prime));
+			long w = 0;
+			for(BigInteger b : sx)
+				w += 32 + b.bitLength() / 8;
+			for(BigInteger b : sw)
+				w += 32 + b.bitLength() / 8;
+			put(key, sw, w);
+		}
+		// the multibyte weights have their multiplier after the weights
+		BigInteger[] w = Arrays.copyOf(sw, sw.length);
+		for(int r = 0; r < x.length; r++)
+			w[order[r]] = sw[r];
+		return w;
+	}
+	
+	private synchronized Object get(Key key) {
+		Entry e = entries.get(key);
+		if(e == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return e.value;
+	}
+	
+	private synchronized void put(Key key, Object value, long arrayWeight) {
+		long w = ENTRY_WEIGHT + arrayWeight;
+		if(w > maxWeight)
+			return;
+		Entry old = entries.put(key, new Entry(value, w));
+		if(old != null)
+			weight -= old.weight;
+		weight += w;
+		// the new entry is the most recently used, so it is never evicted here
+		Iterator<Entry> i = entries.values().iterator();
+		while(entries.size() > maxEntries || weight > maxWeight) {
+			weight -= i.next().weight;
+			i.remove();
+			evictions++;
+		}
+	}
+	
+	/**
+	 * Return the indices of X coordinates in ascending order of coordinate
+	 * @param x The X coordinates
+	 * @return The indices
+	 */
+	private static int[] order(final long[] x) {
+		Integer[] order = new Integer[x.length];
+		for(int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Long.compare(x[o1], x[o2]);
+			}
+		});
+		return unbox(order);
+	}
+	
+	/**
+	 * Return the indices of X coordinates in ascending order of coordinate
+	 * @param x The X coordinates
+	 * @return The indices
+	 */
+	private static int[] order(final BigInteger[] x) {
+		Integer[] order = new Integer[x.length];
+		for(int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return x[o1].compareTo(x[o2]);
+			}
+		});
+		return unbox(order);
+	}
+	
+	private static int[] unbox(Integer[] order) {
+		int[] r = new int[order.length];
+		for(int i = 0; i < r.length; i++)
+			r[i] = order[i];
+		return r;
+	}
+	
+	private static long[] sorted(long[] x, int[] order) {
+		long[] sx = new long[x.length];
+		for(int r = 0; r < x.length; r++)
+			sx[r] = x[order[r]];
+		return sx;
+	}
+	
+	/**
+	 * The field and sorted X coordinates that determine a set of weights
+	 * @author Robin Kirkman
+	 *
+	 */
+	private static final class Key {
+		private final int type;
+		private final BigInteger modulus;
+		private final Object x;
+		private final int hash;
+		
+		private Key(int type, BigInteger modulus, long[] x) {
+			this.type = type;
+			this.modulus = modulus;
+			this.x = x;
+			hash = 31 * type + Arrays.hashCode(x);
+		}
+		
+		private Key(int type, BigInteger modulus, BigInteger[] x) {
+			this.type = type;
+			this.modulus = modulus;
+			this.x = x;
+			hash = 31 * (31 * type + modulus.hashCode()) + Arrays.hashCode(x);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(obj == this)
+				return true;
+			if(!(obj instanceof Key))
+				return false;
+			Key k = (Key) obj;
+			if(type != k.type || hash != k.hash)
+				return false;
+			if(modulus == null ? k.modulus != null : !modulus.equals(k.modulus))
+				return false;
+			if(x instanceof long[])
+				return k.x instanceof long[] && Arrays.equals((long[]) x, (long[]) k.x);
+			return k.x instanceof BigInteger[] && Arrays.equals((BigInteger[]) x, (BigInteger[]) k.x);
+		}
+	}
+	
+	/**
+	 * Cached weights, in the order of the sorted X coordinates of their {@link Key}, and their weight
+	 * @author Robin Kirkman
+	 *
+	 */
+	private static final class Entry {
+		private final Object value;
+		private final long weight;
+		
+		private Entry(Object value, long weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+}
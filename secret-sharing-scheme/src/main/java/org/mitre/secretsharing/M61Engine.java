@@ -0,0 +1,136 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.util.Random;
+
+import org.mitre.secretsharing.util.Mersenne61;
+
+/**
+ * Primitive kernels for splitting and joining {@link M61Part}s over a range
+ * of element positions, used by {@link Secrets}.  Element {@code i} of a secret
+ * is its bytes {@code 7*i} to {@code 7*i+6}, big-endian, and element {@code i} of
+ * a part is its Y bytes {@code 8*i} to {@code 8*i+7}, big-endian.
+ * @author Robin Kirkman
+ *
+ */
+abstract class M61Engine {
+	/**
+	 * Split a range of the elements of a secret
+	 * @param secret The secret
+	 * @param from The first element position, inclusive
+	 * @param to The last element position, exclusive
+	 * @param x The X coordinates of the parts
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @param ys The Y values of each part
+	 */
+	static void split(byte[] secret, int from, int to, long[] x, int requiredParts, Random rnd, byte[][] ys) {
+		long[] coeffs = new long[requiredParts];
+		for(int e = from; e < to; e++) {
+			coeffs[0] = get(secret, e * M61Part.ELEMENT_BYTES, M61Part.ELEMENT_BYTES);
+			for(int d = 1; d < requiredParts; d++) {
+				long c;
+				do {
+					c = rnd.nextLong() >>> 3;
+				} while(c == Mersenne61.P);
+				coeffs[d] = c;
+			}
+			for(int j = 0; j < x.length; j++) {
+				// Horner's rule, from the highest power down to the secret
+				long y = coeffs[requiredParts - 1];
+				for(int d = requiredParts - 2; d >= 0; d--)
+					y = Mersenne61.add(Mersenne61.mul(y, x[j]), coeffs[d]);
+				put(y, ys[j], e * 8, 8);
+			}
+		}
+	}
+	
+	/**
+	 * Join a range of the elements of a secret
+	 * @param ys The Y values of each part
+	 * @param w The Lagrange weights of the parts
+	 * @param from The first element position, inclusive
+	 * @param to The last element position, exclusive
+	 * @param secret The secret to write
+	 */
+	static void join(byte[][] ys, long[] w, int from, int to, byte[] secret) {
+		for(int e = from; e < to; e++) {
+			long s = 0;
+			for(int j = 0; j < ys.length; j++)
+				s = Mersenne61.add(s, Mersenne61.mul(w[j], Mersenne61.reduce(get(ys[j], e * 8, 8))));
+			put(s, secret, e * M61Part.ELEMENT_BYTES, M61Part.ELEMENT_BYTES);
+		}
+	}
+	
+	/**
+	 * Check whether the elements of a part agree with the elements interpolated at its
+	 * X coordinate from other parts, stopping at the first element that disagrees
+	 * @param ys The Y values of the parts interpolated from
+	 * @param w The Lagrange weights of those parts for interpolating at the X coordinate of the part checked
+	 * @param elements The number of elements in each part
+	 * @param y The Y values of the part checked
+	 * @return Whether every element agrees
+	 */
+	static boolean agrees(byte[][] ys, long[] w, int elements, byte[] y) {
+		for(int e = 0; e < elements; e++) {
+			long s = 0;
+			for(int j = 0; j < ys.length; j++)
+				s = Mersenne61.add(s, Mersenne61.mul(w[j], Mersenne61.reduce(get(ys[j], e * 8, 8))));
+			if(s != Mersenne61.reduce(get(y, e * 8, 8)))
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Read a big-endian value, treating bytes past the end of the array as zero
+	 * @param b The array
+	 * @param off The offset of the value
+	 * @param width The number of bytes in the value
+	 * @return The value
+	 */
+	private static long get(byte[] b, int off, int width) {
+		long v = 0;
+		for(int i = 0; i < width; i++)
+			v = (v << 8) | (off + i < b.length ? 0xFF & b[off + i] : 0);
+		return v;
+	}
+	
+	/**
+	 * Write a big-endian value, dropping bytes past the end of the array
+	 * @param v The value
+	 * @param b The array
+	 * @param off The offset of the value
+	 * @param width The number of bytes in the value
+	 */
+	private static void put(long v, byte[] b, int off, int width) {
+		for(int i = width - 1; i >= 0; i--, v >>>= 8) {
+			if(off + i < b.length)
+				b[off + i] = (byte) v;
+		}
+	}
+	
+	private M61Engine() {}
+}
@@ -0,0 +1,95 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+
+import org.mitre.secretsharing.util.InputValidation;
+import org.mitre.secretsharing.util.Mersenne61;
+
+/**
+ * A part of a shared secret that was first cut into 7-byte elements,
+ * with each element shared over the prime field modulo {@code 2^61 - 1}.<p>
+ * 
+ * Like {@link PerBytePart}, a single X coordinate is used for all Y coordinates.
+ * Each Y coordinate is 8 bytes wide, so the part is 8/7 the size of the secret.
+ * 
+ * @author Robin Kirkman
+ *
+ */
+public class M61Part extends Part {
+	public static final BigInteger MODULUS = BigInteger.valueOf(Mersenne61.P);
+	
+	/**
+	 * The number of secret bytes in each field element
+	 */
+	public static final int ELEMENT_BYTES = 7;
+	
+	/**
+	 * Return the number of elements a secret is cut into
+	 * @param length The number of bytes in the secret
+	 * @return The number of elements, the last of which may be partial
+	 */
+	public static int elements(int length) {
+		return (length + ELEMENT_BYTES - 1) / ELEMENT_BYTES;
+	}
+	
+	/**
+	 * Create a {@link M61Part} to hold a Mersenne-61 secret part
+	 * @param version The version this part was formatted with
+	 * @param length The number of bytes in the secret
+	 * @param requiredParts How many parts are required to reconstruct the secret
+	 * @param point The {@link BigPoint} representing this secret part
+	 */
+	public M61Part(int version, int length, int requiredParts, BigPoint point) {
+		super(version, length, requiredParts, MODULUS, point);
+	}
+	
+	/**
+	 * Create a {@link M61Part} whose point is held by a {@link PrivateSecretPart} subclass
+	 * @param version The version this part was formatted with
+	 * @param length The number of bytes in the secret
+	 * @param requiredParts How many parts are required to reconstruct the secret
+	 * @param privatePart The private part holding the point
+	 */
+	M61Part(int version, int length, int requiredParts, PrivateSecretPart privatePart) {
+		super(version, length, requiredParts, MODULUS, privatePart);
+	}
+	
+	@Override
+	public byte[] join(Part... otherParts) {
+		InputValidation iv = InputValidation.begin()
+			.when(otherParts == null, "otherParts is null")
+			.validate();
+		M61Part[] parts = new M61Part[otherParts.length + 1];
+		parts[0] = this;
+		for(int i = 0; i < otherParts.length; i++) {
+			iv
+				.when(!(otherParts[i] instanceof M61Part), "cannot apply m61 join to other parts")
+				.validate();
+			parts[i+1] = (M61Part) otherParts[i];
+		}
+		return Secrets.joinM61(parts);
+	}
+}
@@ -0,0 +1,417 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.mitre.secretsharing.util.BigIntegers;
+import org.mitre.secretsharing.util.InputValidation;
+
+/**
+ * A polynomial whose coefficients are elements of the field of integers modulo a prime.<p>
+ * 
+ * Unlike {@link TermPolynomial}, which does exact rational arithmetic and only applies
+ * its modulus at the end, every coefficient of a {@link ModPolynomial} is kept reduced,
+ * so intermediate values are bounded by the modulus no matter how many points are
+ * interpolated.  Division is done with {@link BigInteger#modInverse(BigInteger)}.
+ * @author Robin Kirkman
+ *
+ */
+public class ModPolynomial {
+	/**
+	 * The number of points each task computes when evaluating in parallel
+	 */
+	private static final int PARALLEL_POINTS = 8;
+	
+	/**
+	 * Compute a Lagrange polynomial modulo a prime from an array of points.
+	 * The interpolating polynomial is unique, so this is computed by
+	 * {@link #newtonPolynomial(BigPoint[], BigInteger)}.
+	 * @param pts Array of points found on the interpolating Lagrange polynomial
+	 * @param modulus The prime modulus of the polynomial
+	 * @return A new {@link ModPolynomial}
+	 * @throws ArithmeticException If the X coordinates are not distinct modulo {@code modulus}
+	 */
+	public static ModPolynomial lagrangePolynomial(BigPoint[] pts, BigInteger modulus) {
+		return newtonPolynomial(pts, modulus);
+	}
+	
+	/**
+	 * Compute the interpolating polynomial modulo a prime from an array of points
+	 * with Newton's divided differences, in {@code O(k^2)} multiplications for {@code k} points.
+	 * Each of the {@code k - 1} columns of differences is divided with a single
+	 * {@link BigInteger#modInverse(BigInteger)}, by {@link BigIntegers#modInverse(BigInteger[], BigInteger)},
+	 * and the Newton form is expanded into coefficients by Horner's rule.
+	 * @param pts Array of points found on the interpolating polynomial
+	 * @param modulus The prime modulus of the polynomial
+	 * @return A new {@link ModPolynomial}
+	 * @throws ArithmeticException If the X coordinates are not distinct modulo {@code modulus}
+	 */
+	public static ModPolynomial newtonPolynomial(BigPoint[] pts, BigInteger modulus) {
+		InputValidation.check(
+			pts == null, "pts is null",
+			modulus == null, "modulus is null",
+			modulus != null && modulus.compareTo(BigInteger.ONE) <= 0, "modulus not greater than one");
+		int k = pts.length;
+		BigInteger[] px = new BigInteger[k];
+		BigInteger[] c = new BigInteger[k];
+		for(int i = 0; i < k; i++) {
+			px[i] = pts[i].getX().mod(modulus);
+			c[i] = pts[i].getY().mod(modulus);
+		}
+		// divided differences: after column j, c[i] for i >= j is f[x[i-j], ..., x[i]]
+		for(int j = 1; j < k; j++) {
+			BigInteger[] den = new BigInteger[k - j];
+			for(int i = j; i < k; i++)
+				den[i - j] = px[i].subtract(px[i - j]).mod(modulus);
+			BigInteger[] inv = BigIntegers.modInverse(den, modulus);
+			for(int i = k - 1; i >= j; i--)
+				c[i] = c[i].subtract(c[i - 1]).multiply(inv[i - j]).mod(modulus);
+		}
+		// expand c[0] + (x - x[0])(c[1] + (x - x[1])(c[2] + ...)) from the inside out
+		BigInteger[] a = new BigInteger[k];
+		if(k > 0)
+			a[0] = c[k - 1];
+		for(int i = k - 2; i >= 0; i--) {
+			// multiply the k - 1 - i coefficients so far by (x - x[i]), then add c[i]
+			int len = k - 1 - i;
+			a[len] = a[len - 1];
+			for(int j = len - 1; j >= 1; j--)
+				a[j] = a[j - 1].subtract(px[i].multiply(a[j])).mod(modulus);
+			a[0] = c[i].subtract(px[i].multiply(a[0])).mod(modulus);
+		}
+		return new ModPolynomial(a, modulus);
+	}
+	
+	/**
+	 * Create a random secret-generating polynomial for the argument secret, modulo a random
+	 * prime with one more bit than the secret
+	 * @param secret The secret, as a Y coordinate on a polynomial
+	 * @param secretBits Number of bits in the secret
+	 * @param powx The power of the polynomial, one less than the number of required secret parts
+	 * @param rnd A source of random
+	 * @return A new {@link ModPolynomial}
+	 */
+	public static ModPolynomial secretPolynomial(BigInteger secret, int secretBits, int powx, Random rnd) {
+		return secretPolynomial(secret, secretBits, powx, rnd, PrimeProviders.random());
+	}
+	
+	/**
+	 * Create a random secret-generating polynomial for the argument secret, modulo a prime
+	 * with one more bit than the secret taken from a {@link PrimeProvider}
+	 * @param secret The secret, as a Y coordinate on a polynomial
+	 * @param secretBits Number of bits in the secret
+	 * @param powx The power of the polynomial, one less than the number of required secret parts
+	 * @param rnd A source of random
+	 * @param primes The source of the prime modulus
+	 * @return A new {@link ModPolynomial}
+	 */
+	public static ModPolynomial secretPolynomial(BigInteger secret, int secretBits, int powx, Random rnd, PrimeProvider primes) {
+		InputValidation.begin()
+			.when(secret == null, "secret is null")
+			.when(secretBits < 0, "secretBits is less than zero")
+			.when(powx < 0, "powx is less than zero")
+			.when(rnd == null, "rnd is null")
+			.when(primes == null, "primes is null")
+			.validate();
+		BigInteger prime = primes.prime(secretBits+1, rnd);
+		while(prime.compareTo(secret) < 0)
+			prime = primes.prime(secretBits+1, rnd);
+		BigInteger[] coeffs = new BigInteger[powx + 1];
+		coeffs[0] = secret;
+		for(int i = 1; i <= powx; i++) {
+			BigInteger a = new BigInteger(secretBits, rnd);
+			while(a.compareTo(prime) > 0)
+				a = new BigInteger(secretBits, rnd);
+			coeffs[i] = a;
+		}
+		return new ModPolynomial(coeffs, prime);
+	}
+	
+	/**
+	 * The coefficients of this polynomial, each reduced modulo {@link #modulus}.
+	 * The ith element in the array is multiplied by x^i in the polynomial.
+	 */
+	private BigInteger[] coefficients;
+	
+	/**
+	 * The prime modulus for this polynomial
+	 */
+	private BigInteger modulus;
+	
+	/**
+	 * Create a new {@link ModPolynomial} from an array of coefficients and a modulus.
+	 * The 0th element is the 0th power in the polynomial, 1th element
+	 * is 1th power, etc.  The coefficients are reduced modulo {@code modulus}.
+	 * @param coefficients The array of coefficients
+	 * @param modulus The prime modulus
+	 */
+	public ModPolynomial(BigInteger[] coefficients, BigInteger modulus) {
+		InputValidation.check(
+			coefficients == null, "coefficients is null",
+			modulus == null, "modulus is null",
+			modulus != null && modulus.compareTo(BigInteger.ONE) <= 0, "modulus not greater than one");
+		this.coefficients = new BigInteger[coefficients.length];
+		for(int i = 0; i < coefficients.length; i++) {
+			InputValidation.check(coefficients[i] == null, "coefficient is null");
+			this.coefficients[i] = coefficients[i].mod(modulus);
+		}
+		this.modulus = modulus;
+	}
+	
+	/**
+	 * Create a Lagrange interpolating polynomial for the argument points and modulus
+	 * @param pts The points to interpolate
+	 * @param modulus The prime modulus
+	 */
+	public ModPolynomial(BigPoint[] pts, BigInteger modulus) {
+		this(lagrangePolynomial(pts, modulus));
+	}
+	
+	/**
+	 * Create a random secret-generating polynomial for the argument secret
+	 * @param secret The secret, as a {@link BigInteger}
+	 * @param secretBits The number of bits in the secret
+	 * @param powx The power of the polynomial, one less than the number of required secret parts
+	 * @param rnd A source of randomness
+	 */
+	public ModPolynomial(BigInteger secret, int secretBits, int powx, Random rnd) {
+		this(secretPolynomial(secret, secretBits, powx, rnd));
+	}
+	
+	/**
+	 * Copy a {@link ModPolynomial}
+	 * @param other The {@link ModPolynomial} to copy
+	 */
+	private ModPolynomial(ModPolynomial other) {
+		this.coefficients = other.coefficients;
+		this.modulus = other.modulus;
+	}
+	
+	@Override
+	public String toString() {
+		if(coefficients.length == 0)
+			return "0 (mod " + modulus + ")";
+		StringBuilder sb = new StringBuilder(coefficients[0].toString());
+		for(int i = 1; i < coefficients.length; i++)
+			sb.append(" + " + coefficients[i] + "x^" + i);
+		sb.append(" (mod " + modulus + ")");
+		return sb.toString();
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if(obj == this)
+			return true;
+		if(obj instanceof ModPolynomial) {
+			ModPolynomial p = (ModPolynomial) obj;
+			return Arrays.equals(coefficients, p.coefficients) && modulus.equals(p.modulus);
+		}
+		return false;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(coefficients) + modulus.hashCode();
+	}
+	
+	/**
+	 * Return the coefficients of this polynomial, ordered such that the nth element
+	 * in the array is the coefficient to the nth power of X
+	 * @return The coefficients
+	 */
+	public BigInteger[] getCoefficients() {
+		return Arrays.copyOf(coefficients, coefficients.length);
+	}
+	
+	/**
+	 * Return the modulus
+	 * @return The prime modulus
+	 */
+	public BigInteger getModulus() {
+		return modulus;
+	}
+	
+	/**
+	 * Return this polynomial as a {@link TermPolynomial} of whole-number terms with the same modulus
+	 * @return A new {@link TermPolynomial}
+	 */
+	public TermPolynomial toTermPolynomial() {
+		Term[] terms = new Term[coefficients.length];
+		for(int i = 0; i < terms.length; i++)
+			terms[i] = new Term(coefficients[i]);
+		// the coefficients are already reduced
+		return TermPolynomial.wrap(terms, modulus);
+	}
+	
+	/**
+	 * Compute the Y coordinate for a given X coordinate with Horner's rule
+	 * @param x The X coordinate
+	 * @return The Y coordinate, reduced modulo {@link #getModulus()}
+	 */
+	public BigInteger y(BigInteger x) {
+		InputValidation.check(x == null, "argument is null");
+		x = x.mod(modulus);
+		// multiplying by a small X only grows the result a little, so reduce
+		// only when it is well past the size of the modulus
+		int limit = (x.bitLength() < 32 ? modulus.bitLength() + 64 : 0);
+		BigInteger result = BigInteger.ZERO;
+		for(int i = coefficients.length - 1; i >= 0; i--) {
+			result = result.multiply(x).add(coefficients[i]);
+			if(result.bitLength() > limit)
+				result = result.mod(modulus);
+		}
+		return result.mod(modulus);
+	}
+	
+	/**
+	 * Add this polynomial to another polynomial with the same modulus and return a new polynomial
+	 * @param other The {@link ModPolynomial} to add
+	 * @return A new {@link ModPolynomial}
+	 */
+	public ModPolynomial add(ModPolynomial other) {
+		InputValidation.check(
+			other == null, "argument is null",
+			other != null && !modulus.equals(other.modulus), "inconsistent moduli");
+		BigInteger[] c = new BigInteger[Math.max(coefficients.length, other.coefficients.length)];
+		for(int i = 0; i < c.length; i++) {
+			BigInteger lhs = (i < coefficients.length) ? coefficients[i] : BigInteger.ZERO;
+			BigInteger rhs = (i < other.coefficients.length) ? other.coefficients[i] : BigInteger.ZERO;
+			c[i] = lhs.add(rhs);
+		}
+		return new ModPolynomial(c, modulus);
+	}
+	
+	/**
+	 * Multiply this polynomial by another polynomial with the same modulus
+	 * and return a new polynomial
+	 * @param other The {@link ModPolynomial} to multiply by
+	 * @return A new {@link ModPolynomial}
+	 */
+	public ModPolynomial multiply(ModPolynomial other) {
+		InputValidation.check(
+			other == null, "argument is null",
+			other != null && !modulus.equals(other.modulus), "inconsistent moduli");
+		if(coefficients.length == 0 || other.coefficients.length == 0)
+			return new ModPolynomial(new BigInteger[0], modulus);
+		BigInteger[] c = new BigInteger[coefficients.length + other.coefficients.length - 1];
+		Arrays.fill(c, BigInteger.ZERO);
+		for(int i = 0; i < coefficients.length; i++) {
+			for(int j = 0; j < other.coefficients.length; j++)
+				c[i + j] = c[i + j].add(coefficients[i].multiply(other.coefficients[j])).mod(modulus);
+		}
+		return new ModPolynomial(c, modulus);
+	}
+	
+	/**
+	 * Multiply this polynomial by a constant and return a new polynomial
+	 * @param val The number to multiply by
+	 * @return A new {@link ModPolynomial}
+	 */
+	public ModPolynomial multiply(BigInteger val) {
+		InputValidation.check(val == null, "argument is null");
+		BigInteger[] c = new BigInteger[coefficients.length];
+		for(int i = 0; i < c.length; i++)
+			c[i] = coefficients[i].multiply(val);
+		return new ModPolynomial(c, modulus);
+	}
+	
+	/**
+	 * Return a single point on this polynomial, as a {@link BigPoint}
+	 * @param x The X coordinate of the point
+	 * @return The point
+	 */
+	public BigPoint p(BigInteger x) {
+		InputValidation.check(x == null, "argument is null");
+		return new BigPoint(x, y(x));
+	}
+	
+	/**
+	 * Return an array of points on this polynomial for
+	 * the argument array of X values, as {@link BigPoint}s
+	 * @param x The X coordinates of the points
+	 * @return An array of points
+	 */
+	public BigPoint[] p(BigInteger[] x) {
+		InputValidation.check(x == null, "argument is null");
+		BigPoint[] pts = new BigPoint[x.length];
+		for(int i = 0; i < x.length; i++)
+			pts[i] = p(x[i]);
+		return pts;
+	}
+	
+	/**
+	 * Return an array of points on this polynomial for the argument array of X values,
+	 * as {@link BigPoint}s, evaluating the points in parallel in a {@link ForkJoinPool}.
+	 * The points are in the same order as the X values.
+	 * @param x The X coordinates of the points
+	 * @param pool The pool to evaluate in, or {@code null} to evaluate on the calling thread
+	 * @return An array of points
+	 */
+	public BigPoint[] p(BigInteger[] x, ForkJoinPool pool) {
+		InputValidation.check(x == null, "argument is null");
+		if(pool == null)
+			return p(x);
+		BigPoint[] pts = new BigPoint[x.length];
+		pool.invoke(new Evaluation(x, pts, 0, x.length));
+		return pts;
+	}
+	
+	/**
+	 * Task that evaluates this polynomial at a range of X values,
+	 * splitting the range in half until it is small enough
+	 * @author Robin Kirkman
+	 *
+	 */
+	private class Evaluation extends RecursiveAction {
+		private static final long serialVersionUID = 0;
+		
+		private BigInteger[] x;
+		private BigPoint[] pts;
+		private int from;
+		private int to;
+		
+		private Evaluation(BigInteger[] x, BigPoint[] pts, int from, int to) {
+			this.x = x;
+			this.pts = pts;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to - from <= PARALLEL_POINTS) {
+				for(int i = from; i < to; i++)
+					pts[i] = p(x[i]);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new Evaluation(x, pts, from, mid), new Evaluation(x, pts, mid, to));
+		}
+	}
+}
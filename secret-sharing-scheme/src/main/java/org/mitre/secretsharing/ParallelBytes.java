@@ -0,0 +1,143 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A computation over the byte positions of a per-byte secret, run either
+ * on the calling thread or in fixed-size chunks in a {@link ForkJoinPool}.<p>
+ * 
+ * When run in parallel, each chunk gets its own random stream seeded with bytes drawn
+ * in order from the caller's random: a {@code SHA1PRNG} if the caller's random is a
+ * {@link SecureRandom}, and a plain {@link Random} otherwise.  The chunk boundaries
+ * do not depend on the pool, so the result depends only on the caller's random.
+ * @author Robin Kirkman
+ *
+ */
+abstract class ParallelBytes {
+	/**
+	 * The number of byte positions in each chunk
+	 */
+	static final int CHUNK = 1 << 14;
+	
+	/**
+	 * The number of seed bytes drawn for each chunk's random
+	 */
+	private static final int SEED = 32;
+	
+	/**
+	 * Process a range of byte positions
+	 * @param from The first byte position, inclusive
+	 * @param to The last byte position, exclusive
+	 * @param rnd The source of random for this range, or {@code null} if none was given to {@link #invoke(int, Random, ForkJoinPool)}
+	 */
+	protected abstract void run(int from, int to, Random rnd);
+	
+	/**
+	 * Process all the byte positions of a secret
+	 * @param length The number of byte positions
+	 * @param rnd A source of random, or {@code null} if the computation does not need one
+	 * @param pool The pool to run chunks in, or {@code null} to run on the calling thread
+	 */
+	void invoke(int length, Random rnd, ForkJoinPool pool) {
+		if(pool == null) {
+			run(0, length, rnd);
+			return;
+		}
+		int chunks = (length + CHUNK - 1) / CHUNK;
+		if(chunks == 0)
+			return;
+		byte[] seeds = null;
+		if(rnd != null) {
+			seeds = new byte[chunks * SEED];
+			rnd.nextBytes(seeds);
+		}
+		pool.invoke(new Chunks(0, chunks, length, seeds, rnd instanceof SecureRandom));
+	}
+	
+	/**
+	 * Create the random for a chunk from its seed bytes
+	 * @param seeds The seed bytes for all chunks
+	 * @param chunk The chunk
+	 * @param secure Whether to create a {@link SecureRandom}
+	 * @return A new {@link Random}
+	 */
+	private static Random chunkRandom(byte[] seeds, int chunk, boolean secure) {
+		if(seeds == null)
+			return null;
+		if(!secure) {
+			long seed = 0;
+			for(int i = 0; i < 8; i++)
+				seed = (seed << 8) | (0xFF & seeds[chunk * SEED + i]);
+			return new Random(seed);
+		}
+		SecureRandom r;
+		try {
+			r = SecureRandom.getInstance("SHA1PRNG");
+		} catch(NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		r.setSeed(Arrays.copyOfRange(seeds, chunk * SEED, (chunk + 1) * SEED));
+		return r;
+	}
+	
+	/**
+	 * Task that runs a range of chunks, splitting it in half until there is one chunk left
+	 * @author Robin Kirkman
+	 *
+	 */
+	private class Chunks extends RecursiveAction {
+		private static final long serialVersionUID = 0;
+		
+		private int lo;
+		private int hi;
+		private int length;
+		private byte[] seeds;
+		private boolean secure;
+		
+		private Chunks(int lo, int hi, int length, byte[] seeds, boolean secure) {
+			this.lo = lo;
+			this.hi = hi;
+			this.length = length;
+			this.seeds = seeds;
+			this.secure = secure;
+		}
+		
+		@Override
+		protected void compute() {
+			if(hi - lo == 1) {
+				run(lo * CHUNK, Math.min(hi * CHUNK, length), chunkRandom(seeds, lo, secure));
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new Chunks(lo, mid, length, seeds, secure), new Chunks(mid, hi, length, seeds, secure));
+		}
+	}
+}
@@ -24,7 +24,6 @@ us know where this software is being used.
 package org.mitre.secretsharing;
 
 import java.math.BigInteger;
-import java.util.Arrays;
 
 import org.mitre.secretsharing.codec.PartFormats;
 import org.mitre.secretsharing.util.InputValidation;
@@ -62,11 +61,10 @@ public class Part {
 		 * @param modulus The modulus of the secret polynomial
 		 */
 		private PublicSecretPart(int length, int requiredParts, BigInteger modulus) {
-			InputValidation.begin()
-				.when(length < 0, "length is less than 0")
-				.when(requiredParts < 1, "requiredParts is less than 1")
-				.when(modulus == null, "modulus is null")
-				.validate();
+			InputValidation.check(
+				length < 0, "length is less than 0",
+				requiredParts < 1, "requiredParts is less than 1",
+				modulus == null, "modulus is null");
 			this.length = length;
 			this.requiredParts = requiredParts;
 			this.modulus = modulus;
@@ -113,9 +111,16 @@ public class Part {
 		 * @param point The point on the polynomial
 		 */
 		private PrivateSecretPart(BigPoint point) {
-			InputValidation.begin().when(point == null, "point is null").validate();
+			InputValidation.check(point == null, "point is null");
 			this.point = point;
 		}
+		
+		/**
+		 * Create a {@link PrivateSecretPart} for a subclass that computes its point
+		 * when first asked, by overriding {@link #getPoint()}
+		 */
+		protected PrivateSecretPart() {
+		}
 
 		/**
 		 * Return the point on the polynomial
@@ -146,10 +151,9 @@ public class Part {
 	 * @param privatePart The private secret part
 	 */
 	public Part(int version, PublicSecretPart publicPart, PrivateSecretPart privatePart) {
-		InputValidation.begin()
-			.when(publicPart == null, "publicPart is null")
-			.when(privatePart == null, "privatePart is null")
-			.validate();
+		InputValidation.check(
+			publicPart == null, "publicPart is null",
+			privatePart == null, "privatePart is null");
 		this.version = version;
 		this.publicPart = publicPart;
 		this.privatePart = privatePart;
@@ -163,7 +167,7 @@ public class Part {
 	 * @param point The polynomial point representing the secret part
 	 */
 	public Part(int length, int requiredParts, BigInteger modulus, BigPoint point) {
-		this(PartFormats.currentStringFormat().getVersion(), new PublicSecretPart(length, requiredParts, modulus), new PrivateSecretPart(point));
+		this(PartFormats.StringFormats.VERSION_3.getVersion(), new PublicSecretPart(length, requiredParts, modulus), new PrivateSecretPart(point));
 	}
 	
 	/**
@@ -178,6 +182,18 @@ public class Part {
 		this(version, new PublicSecretPart(length, requiredParts, modulus), new PrivateSecretPart(point));
 	}
 
+	/**
+	 * Create a new {@link Part} with a subclass of {@link PrivateSecretPart}
+	 * @param version The format version this Part was read from 
+	 * @param length The length in bytes of the secret
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param modulus The modulus of the secret polynomial
+	 * @param privatePart The private secret part
+	 */
+	protected Part(int version, int length, int requiredParts, BigInteger modulus, PrivateSecretPart privatePart) {
+		this(version, new PublicSecretPart(length, requiredParts, modulus), privatePart);
+	}
+
 	/**
 	 * Copy constructor
 	 * @param other The {@link Part} to copy
@@ -196,7 +212,7 @@ public class Part {
 	
 	@Override
 	public String toString() {
-		return PartFormats.currentStringFormat().format(this);
+		return PartFormats.stringFormat(this).format(this);
 	}
 
 	/**
@@ -219,8 +235,8 @@ public class Part {
 	
 	/**
 	 * Return the format version of this secret part.
-	 * @see PartFormats#currentBytesFormat()
-	 * @see PartFormats#currentStringFormat()
+	 * @see PartFormats#bytesFormat(Part)
+	 * @see PartFormats#stringFormat(Part)
 	 * @return The format version.
 	 */
 	public int getVersion() {
@@ -263,9 +279,49 @@ public class Part {
 		return getPrivatePart().getPoint();
 	}
 	
+	/**
+	 * Add the checks that a part belongs to the same secret as another part: that it
+	 * is of the same type and agrees on length, required parts and modulus
+	 * @param iv The validation to add the checks to
+	 * @param part The part to check
+	 * @param first The part to check it against
+	 * @return {@code iv}
+	 */
+	static InputValidation whenInconsistent(InputValidation iv, Part part, Part first) {
+		return iv
+			.when(part.getClass() != first.getClass(), "inconsistent part types")
+			.when(part.getLength() != first.getLength(), "inconsistent secret lengths")
+			.when(part.getRequiredParts() != first.getRequiredParts(), "inconsistent number of required parts")
+			.when(!part.getModulus().equals(first.getModulus()), "inconsistent moduli");
+	}
+	
+	/**
+	 * Check that an array holds the parts of one secret: that it is not empty, has
+	 * no {@code null} elements, and that every part is consistent with the first
+	 * by {@link #whenInconsistent(InputValidation, Part, Part)}
+	 * @param parts The parts
+	 * @return The validation, to continue with further checks
+	 */
+	static InputValidation validateConsistent(Part[] parts) {
+		InputValidation iv = InputValidation.begin()
+			.when(parts == null, "parts array is null")
+			.when(parts != null && parts.length == 0, "parts array is empty")
+			.validate();
+		for(Part part : parts)
+			iv.when(part == null, "part is null");
+		iv.validate();
+		for(Part part : parts)
+			whenInconsistent(iv, part, parts[0]);
+		return iv.validate();
+	}
+	
 	/**
 	 * Join this {@link Part} with an array of other {@link Part}s of the same
-	 * type to reconstruct a secret.  {@link Part} may not be joined with {@link PerBytePart}. 
+	 * type to reconstruct a secret.  {@link Part} may not be joined with {@link PerBytePart},
+	 * {@link Gf256Part}, {@link BlockPart} or {@link M61Part}.  Only this part and the first
+	 * {@link #getRequiredParts()}{@code - 1} other parts are interpolated; any further parts are
+	 * validated but otherwise ignored.  Use {@link Secrets#inconsistentParts(Part[])} to check
+	 * them against the rest.
 	 * @param otherParts Array of other parts to join with this one.
 	 * @return The reconstructed secret
 	 */
@@ -276,11 +332,16 @@ public class Part {
 		InputValidation iv = InputValidation.begin()
 				.when(otherParts == null, "otherParts is null")
 				.validate();
-		Part[] parts = Arrays.copyOf(otherParts, otherParts.length + 1);
-		parts[parts.length - 1] = this;
+		// this part comes first, as it does for the other part types, since joins use only the first parts given
+		Part[] parts = new Part[otherParts.length + 1];
+		parts[0] = this;
+		System.arraycopy(otherParts, 0, parts, 1, otherParts.length);
 		for(Part p : parts) {
 			iv
 				.when(p instanceof PerBytePart, "cannot apply multibyte join to perbyte parts")
+				.when(p instanceof Gf256Part, "cannot apply multibyte join to gf256 parts")
+				.when(p instanceof BlockPart, "cannot apply multibyte join to block parts")
+				.when(p instanceof M61Part, "cannot apply multibyte join to m61 parts")
 				.validate();
 		}
 		return Secrets.joinMultibyte(parts);
@@ -0,0 +1,149 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.util.Random;
+
+import org.mitre.secretsharing.util.Gf65521;
+
+/**
+ * Primitive kernels for splitting and joining {@link PerBytePart}s over a range
+ * of byte positions, used by {@link Secrets}
+ * @author Robin Kirkman
+ *
+ */
+abstract class PerByteEngine {
+	/**
+	 * The number of coefficients generated at once by {@link #split(byte[], int, int, int[], int[][], int, Random, char[][])}
+	 */
+	private static final int BLOCK = 4096;
+	
+	/**
+	 * The largest table of powers of X coordinates that is kept for every part,
+	 * rather than recomputed for each block of bytes
+	 */
+	private static final int POWERS = 1 << 22;
+	
+	/**
+	 * Compute the powers of every X coordinate up to {@code requiredParts - 1}, if the
+	 * table is small enough to keep.  Otherwise the elements of the table are {@code null}.
+	 * @param x The X coordinates
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @return The table of powers
+	 */
+	static int[][] powers(int[] x, int requiredParts) {
+		int[][] xp = new int[x.length][];
+		if((long) x.length * requiredParts <= POWERS) {
+			for(int j = 0; j < x.length; j++)
+				xp[j] = Gf65521.powers(x[j], new int[requiredParts]);
+		}
+		return xp;
+	}
+	
+	/**
+	 * Split a range of the bytes of a secret.<p>
+	 * 
+	 * Evaluating every byte's polynomial at every X coordinate is the product of the
+	 * matrix of powers of the X coordinates and the matrix of coefficients.  The
+	 * coefficients are generated a cache-sized block of bytes at a time.
+	 * @param secret The secret
+	 * @param from The first byte position, inclusive
+	 * @param to The last byte position, exclusive
+	 * @param x The X coordinates of the parts
+	 * @param xp The powers of the X coordinates, from {@link #powers(int[], int)}
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @param ys The Y values of each part, one per secret byte
+	 */
+	static void split(byte[] secret, int from, int to, int[] x, int[][] xp, int requiredParts, Random rnd, char[][] ys) {
+		int[] scratch = new int[requiredParts];
+		int block = Math.max(1, BLOCK / requiredParts);
+		int[] coeffs = new int[block * requiredParts];
+		for(int off = from; off < to; off += block) {
+			int len = Math.min(block, to - off);
+			for(int i = 0; i < len; i++) {
+				int c = i * requiredParts;
+				coeffs[c] = 0xFF & secret[off + i];
+				for(int d = 1; d < requiredParts; d++)
+					coeffs[c + d] = (int)(Gf65521.P * rnd.nextDouble());
+			}
+			for(int j = 0; j < ys.length; j++) {
+				int[] v = (xp[j] != null ? xp[j] : Gf65521.powers(x[j], scratch));
+				char[] yj = ys[j];
+				for(int i = 0; i < len; i++) {
+					int c = i * requiredParts;
+					// products are less than 2^32, so the sum is reduced once
+					long y = 0;
+					for(int d = 0; d < requiredParts; d++)
+						y += (long) v[d] * coeffs[c + d];
+					yj[off + i] = (char)(y % Gf65521.P);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Join a range of the bytes of a secret.  The Lagrange weights are the same for
+	 * every byte, so each byte is a dot product of the weights and the Y values.
+	 * @param ys The Y values of each part, one per secret byte
+	 * @param w The Lagrange weights of the parts
+	 * @param from The first byte position, inclusive
+	 * @param to The last byte position, exclusive
+	 * @param secret The secret to write
+	 */
+	static void join(char[][] ys, int[] w, int from, int to, byte[] secret) {
+		// products are less than 2^32, so the sums can be reduced once at the end
+		long[] s = new long[to - from];
+		for(int j = 0; j < ys.length; j++) {
+			char[] y = ys[j];
+			long wj = w[j];
+			for(int i = 0; i < s.length; i++)
+				s[i] += wj * y[from + i];
+		}
+		for(int i = 0; i < s.length; i++)
+			secret[from + i] = (byte)(s[i] % Gf65521.P);
+	}
+	
+	/**
+	 * Check whether the Y values of a part agree with the values interpolated at its
+	 * X coordinate from other parts, stopping at the first byte position that disagrees
+	 * @param ys The Y values of the parts interpolated from, one per secret byte
+	 * @param w The Lagrange weights of those parts for interpolating at the X coordinate of the part checked
+	 * @param y The Y values of the part checked, one per secret byte
+	 * @return Whether every Y value agrees
+	 */
+	static boolean agrees(char[][] ys, int[] w, char[] y) {
+		for(int i = 0; i < y.length; i++) {
+			// products are less than 2^32, so the sum is reduced once
+			long s = 0;
+			for(int j = 0; j < ys.length; j++)
+				s += (long) w[j] * ys[j][i];
+			if(s % Gf65521.P != y[i])
+				return false;
+		}
+		return true;
+	}
+	
+	private PerByteEngine() {}
+}
@@ -25,6 +25,7 @@ package org.mitre.secretsharing;
 
 import java.math.BigInteger;
 
+import org.mitre.secretsharing.util.BigIntegers;
 import org.mitre.secretsharing.util.InputValidation;
 
 /**
@@ -32,7 +33,11 @@ import org.mitre.secretsharing.util.InputValidation;
  * 
  * Unlike {@link Part}, which uses a single Y coordinate, {@link PerBytePart} uses
  * an individual two-byte Y coordinate for each byte of the shared secret.  The single X
- * coordinate is used for all Y coordinates.
+ * coordinate is used for all Y coordinates.<p>
+ * 
+ * Parts created by {@link Secrets#splitPerByte(byte[], int, int, java.util.Random)} keep their
+ * Y coordinates in a {@code char[]}, and only pack them into a {@link BigPoint} when
+ * {@link #getPoint()} is first called.
  * 
  * @author Robin Kirkman
  *
@@ -40,6 +45,38 @@ import org.mitre.secretsharing.util.InputValidation;
 public class PerBytePart extends Part {
 	public static final BigInteger MODULUS = BigInteger.valueOf(65521);
 	public static final int MAX_PARTS = MODULUS.intValue() - 1;
+	
+	/**
+	 * Private part holding an X coordinate and a {@code char[]} of Y coordinates,
+	 * which are packed into a {@link BigPoint} on demand
+	 * @author Robin Kirkman
+	 *
+	 */
+	private static class CompactSecretPart extends PrivateSecretPart {
+		private int x;
+		private char[] y;
+		private volatile BigPoint point;
+		
+		private CompactSecretPart(int x, char[] y) {
+			this.x = x;
+			this.y = y;
+		}
+		
+		@Override
+		public BigPoint getPoint() {
+			BigPoint p = point;
+			if(p == null) {
+				// the Y values are packed two bytes each after a leading zero byte
+				byte[] b = new byte[1 + 2 * y.length];
+				for(int i = 0; i < y.length; i++) {
+					b[2*i+1] = (byte)(y[i] >>> 8);
+					b[2*i+2] = (byte) y[i];
+				}
+				point = p = new BigPoint(BigInteger.valueOf(x), new BigInteger(b));
+			}
+			return p;
+		}
+	}
 
 	/**
 	 * Create a {@link PerBytePart} to hold a per-byte secret part
@@ -51,7 +88,82 @@ public class PerBytePart extends Part {
 	public PerBytePart(int version, int length, int requiredParts, BigPoint point) {
 		super(version, length, requiredParts, MODULUS, point);
 	}
+	
+	/**
+	 * Create a {@link PerBytePart} to hold a per-byte secret part from its Y coordinates.
+	 * The array is used by the part, not copied.
+	 * @param version The version this part was formatted with
+	 * @param length The number of bytes in the secret
+	 * @param requiredParts How many parts are required to reconstruct the secret
+	 * @param x The X coordinate
+	 * @param y The Y coordinates, one per secret byte, each less than {@link #MODULUS}
+	 */
+	public PerBytePart(int version, int length, int requiredParts, int x, char[] y) {
+		super(version, length, requiredParts, MODULUS, compact(length, x, y));
+	}
+	
+	private static CompactSecretPart compact(int length, int x, char[] y) {
+		InputValidation.check(
+			x < 1 || x > MAX_PARTS, "x out of range",
+			y == null, "y is null",
+			y != null && y.length != length, "y length is not the secret length");
+		return new CompactSecretPart(x, y);
+	}
+	
+	/**
+	 * Return the Y coordinates of this part, one per secret byte
+	 * @return A new array of Y coordinates
+	 */
+	public char[] getYValues() {
+		return values().clone();
+	}
+	
+	/**
+	 * Return the Y coordinates of this part without copying them.  For a part
+	 * created from a {@link BigPoint} they are unpacked from its Y coordinate.
+	 * @return The Y coordinates, which must not be modified
+	 */
+	char[] values() {
+		if(getPrivatePart() instanceof CompactSecretPart)
+			return ((CompactSecretPart) getPrivatePart()).y;
+		byte[] b = BigIntegers.toBytes(getPoint().getY(), 2 * getLength());
+		char[] y = new char[getLength()];
+		for(int i = 0; i < y.length; i++)
+			y[i] = (char)(((0xFF & b[2*i]) << 8) | (0xFF & b[2*i+1]));
+		return y;
+	}
+	
+	/**
+	 * Return whether this part holds its Y coordinates as a {@code char[]}, so that
+	 * {@link #values()} and {@link #x()} do not need its {@link BigPoint}
+	 * @return {@code true} if the part was created from its Y coordinates
+	 */
+	boolean isCompact() {
+		return getPrivatePart() instanceof CompactSecretPart;
+	}
+	
+	/**
+	 * Return the X coordinate of this part without packing its Y coordinates
+	 * into a {@link BigPoint}
+	 * @return The X coordinate
+	 */
+	BigInteger x() {
+		if(isCompact())
+			return BigInteger.valueOf(((CompactSecretPart) getPrivatePart()).x);
+		return getPoint().getX();
+	}
 
+	/**
+	 * Create a {@link PerBytePart} whose point is held by a {@link PrivateSecretPart} subclass
+	 * @param version The version this part was formatted with
+	 * @param length The number of bytes in the secret
+	 * @param requiredParts How many parts are required to reconstruct the secret
+	 * @param privatePart The private part holding the point
+	 */
+	PerBytePart(int version, int length, int requiredParts, PrivateSecretPart privatePart) {
+		super(version, length, requiredParts, MODULUS, privatePart);
+	}
+	
 	@Override
 	public byte[] join(Part... otherParts) {
 		InputValidation iv = InputValidation.begin()
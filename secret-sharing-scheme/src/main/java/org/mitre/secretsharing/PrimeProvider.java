@@ -0,0 +1,44 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Source of the prime moduli used by multibyte splits.  Implementations are
+ * created with the factory methods of {@link PrimeProviders}.
+ * @author Robin Kirkman
+ *
+ */
+public interface PrimeProvider {
+	/**
+	 * Return a prime of exactly {@code bits} bits.  Providers may return the same
+	 * prime for every call with the same bit length; the prime need not be secret.
+	 * @param bits The bit length of the prime
+	 * @param rnd A source of random, for providers that generate primes on the calling thread
+	 * @return A probable prime of {@code bits} bits
+	 */
+	public BigInteger prime(int bits, Random rnd);
+}
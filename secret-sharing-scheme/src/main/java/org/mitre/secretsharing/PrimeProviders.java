@@ -0,0 +1,354 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mitre.secretsharing.util.InputValidation;
+
+/**
+ * Factory methods for {@link PrimeProvider}s.<p>
+ * 
+ * The {@link #defaultProvider()} answers the common secret sizes from a built-in
+ * table of primes and generates a prime with {@link BigInteger#probablePrime(int, Random)}
+ * for other sizes.  {@link #pool(int, int, PrimeProvider)} and {@link #cached(File, PrimeProvider)}
+ * can be stacked in front of it to keep primality testing off the splitting thread.
+ * @author Robin Kirkman
+ *
+ */
+public abstract class PrimeProviders {
+	/**
+	 * Pairs of {@code (bytes, c)} such that {@code 2^(8*bytes) + c} is the smallest prime
+	 * greater than {@code 2^(8*bytes)}, and so has {@code 8*bytes+1} bits, which is
+	 * the prime size used for a secret of {@code bytes} bytes.
+	 */
+	private static final int[] OFFSETS = {
+		1, 1, 2, 1, 3, 43, 4, 15, 5, 15, 6, 21, 7, 81, 8, 13,
+		9, 15, 10, 13, 11, 7, 12, 61, 13, 111, 14, 25, 15, 451, 16, 51,
+		17, 85, 18, 175, 19, 253, 20, 7, 21, 87, 22, 427, 23, 27, 24, 133,
+		25, 235, 26, 375, 27, 423, 28, 735, 29, 357, 30, 115, 31, 81, 32, 297,
+		33, 175, 34, 57, 35, 45, 36, 127, 37, 61, 38, 37, 39, 91, 40, 27,
+		41, 15, 42, 241, 43, 231, 44, 55, 45, 105, 46, 127, 47, 115, 48, 231,
+		49, 207, 50, 181, 51, 37, 52, 235, 53, 163, 54, 1093, 55, 187, 56, 211,
+		57, 21, 58, 841, 59, 445, 60, 165, 61, 777, 62, 583, 63, 133, 64, 75,
+		96, 183, 128, 643, 192, 75, 256, 981, 384, 813, 512, 1761,
+	};
+	
+	/**
+	 * The built-in primes, by bit length
+	 */
+	private static final Map<Integer, BigInteger> TABLE = new HashMap<Integer, BigInteger>();
+	static {
+		for(int i = 0; i < OFFSETS.length; i += 2) {
+			int bits = OFFSETS[i] * 8;
+			TABLE.put(bits + 1, BigInteger.ONE.shiftLeft(bits).add(BigInteger.valueOf(OFFSETS[i+1])));
+		}
+	}
+	
+	private static final PrimeProvider RANDOM = new PrimeProvider() {
+		@Override
+		public BigInteger prime(int bits, Random rnd) {
+			return BigInteger.probablePrime(bits, rnd);
+		}
+	};
+	
+	private static final PrimeProvider DEFAULT = table(RANDOM);
+	
+	/**
+	 * Returns the provider used by {@link Secrets#splitMultibyte(byte[], int, int, Random)}:
+	 * the built-in table, falling back to {@link #random()}
+	 * @return The default {@link PrimeProvider}
+	 */
+	public static PrimeProvider defaultProvider() {
+		return DEFAULT;
+	}
+	
+	/**
+	 * Returns a provider that generates a new prime for every call with
+	 * {@link BigInteger#probablePrime(int, Random)}
+	 * @return A {@link PrimeProvider}
+	 */
+	public static PrimeProvider random() {
+		return RANDOM;
+	}
+	
+	/**
+	 * Returns a provider that answers from the built-in table of primes, which covers
+	 * secrets of 1 to 64 bytes and of 96, 128, 192, 256, 384 and 512 bytes
+	 * @param fallback The provider for bit lengths not in the table
+	 * @return A {@link PrimeProvider}
+	 */
+	public static PrimeProvider table(final PrimeProvider fallback) {
+		InputValidation.begin().when(fallback == null, "fallback is null").validate();
+		return new PrimeProvider() {
+			@Override
+			public BigInteger prime(int bits, Random rnd) {
+				BigInteger p = TABLE.get(bits);
+				return p != null ? p : fallback.prime(bits, rnd);
+			}
+		};
+	}
+	
+	/**
+	 * Returns a provider that keeps a bounded queue of pre-generated primes for each
+	 * bit length it is asked for, refilled by background daemon threads.  A call
+	 * that finds its queue empty is answered by {@code fallback} on the calling thread.
+	 * @param capacity The number of primes to keep for each bit length
+	 * @param threads The number of background threads
+	 * @param fallback The provider for calls that find the pool empty
+	 * @return A new {@link Pool}
+	 */
+	public static Pool pool(int capacity, int threads, PrimeProvider fallback) {
+		return new Pool(capacity, threads, fallback);
+	}
+	
+	/**
+	 * Returns a provider that remembers one prime for each bit length in a file,
+	 * asking {@code source} for bit lengths not yet in the file and appending the result.
+	 * Each line of the file is the bit length and the prime in hex, separated by a space.
+	 * Primes read from the file are checked for length and primality when the file is loaded.
+	 * @param file The cache file, which need not exist yet
+	 * @param source The provider for bit lengths not in the file
+	 * @return A {@link PrimeProvider}
+	 */
+	public static PrimeProvider cached(File file, PrimeProvider source) {
+		return new Cached(file, source);
+	}
+	
+	/**
+	 * Bounded pool of pre-generated primes
+	 * @author Robin Kirkman
+	 *
+	 */
+	public static final class Pool implements PrimeProvider {
+		private final int capacity;
+		private final PrimeProvider fallback;
+		private final ExecutorService executor;
+		private final ConcurrentMap<Integer, Holder> holders = new ConcurrentHashMap<Integer, Holder>();
+		private final Random rnd = new SecureRandom();
+		
+		private Pool(int capacity, int threads, PrimeProvider fallback) {
+			InputValidation.begin()
+				.when(capacity < 1, "capacity is less than 1")
+				.when(threads < 1, "threads is less than 1")
+				.when(fallback == null, "fallback is null")
+				.validate();
+			this.capacity = capacity;
+			this.fallback = fallback;
+			executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "prime-pool");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		
+		@Override
+		public BigInteger prime(int bits, Random rnd) {
+			BigInteger p = holder(bits).primes.poll();
+			refill(bits);
+			return p != null ? p : fallback.prime(bits, rnd);
+		}
+		
+		/**
+		 * Start filling the queues for the argument bit lengths
+		 * @param bits The bit lengths
+		 * @return This {@link Pool}
+		 */
+		public Pool prefill(int... bits) {
+			for(int b : bits)
+				refill(b);
+			return this;
+		}
+		
+		/**
+		 * Return the number of primes ready for a bit length
+		 * @param bits The bit length
+		 * @return The number of pre-generated primes
+		 */
+		public int available(int bits) {
+			return holder(bits).primes.size();
+		}
+		
+		/**
+		 * Stop the background threads.  The pool still answers from its
+		 * remaining primes and the fallback.
+		 */
+		public void shutdown() {
+			executor.shutdownNow();
+		}
+		
+		private Holder holder(int bits) {
+			Holder h = holders.get(bits);
+			if(h == null) {
+				holders.putIfAbsent(bits, new Holder(capacity));
+				h = holders.get(bits);
+			}
+			return h;
+		}
+		
+		private void refill(final int bits) {
+			Holder h = holder(bits);
+			final BlockingQueue<BigInteger> q = h.primes;
+			final AtomicInteger n = h.pending;
+			while(!executor.isShutdown()) {
+				int p = n.get();
+				if(q.size() + p >= capacity)
+					return;
+				if(!n.compareAndSet(p, p + 1))
+					continue;
+				try {
+					executor.execute(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								q.offer(BigInteger.probablePrime(bits, rnd));
+							} finally {
+								n.decrementAndGet();
+							}
+						}
+					});
+				} catch(RejectedExecutionException e) {
+					// shut down since the check above, so leave the rest to the fallback
+					n.decrementAndGet();
+					return;
+				}
+			}
+		}
+		
+		/**
+		 * The primes ready for one bit length and the number being generated,
+		 * created together so that neither is ever seen without the other
+		 * @author Robin Kirkman
+		 *
+		 */
+		private static final class Holder {
+			private final BlockingQueue<BigInteger> primes;
+			private final AtomicInteger pending = new AtomicInteger();
+			
+			private Holder(int capacity) {
+				primes = new ArrayBlockingQueue<BigInteger>(capacity);
+			}
+		}
+	}
+	
+	/**
+	 * Provider backed by a cache file
+	 * @author Robin Kirkman
+	 *
+	 */
+	private static final class Cached implements PrimeProvider {
+		private static final Charset UTF8 = Charset.forName("UTF-8");
+		
+		private final File file;
+		private final PrimeProvider source;
+		private final Map<Integer, BigInteger> primes = new HashMap<Integer, BigInteger>();
+		
+		private Cached(File file, PrimeProvider source) {
+			InputValidation.begin()
+				.when(file == null, "file is null")
+				.when(source == null, "source is null")
+				.validate();
+			this.file = file;
+			this.source = source;
+			if(file.exists())
+				load();
+		}
+		
+		@Override
+		public synchronized BigInteger prime(int bits, Random rnd) {
+			BigInteger p = primes.get(bits);
+			if(p == null) {
+				p = source.prime(bits, rnd);
+				primes.put(bits, p);
+				store(bits, p);
+			}
+			return p;
+		}
+		
+		private void load() {
+			try {
+				BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8));
+				try {
+					for(String line = in.readLine(); line != null; line = in.readLine()) {
+						line = line.trim();
+						if(line.isEmpty())
+							continue;
+						String[] f = line.split(" ");
+						if(f.length != 2)
+							throw new IllegalArgumentException("malformed line in " + file + ": " + line);
+						int bits = Integer.parseInt(f[0]);
+						BigInteger p = new BigInteger(f[1], 16);
+						if(p.bitLength() != bits || !p.isProbablePrime(64))
+							throw new IllegalArgumentException("invalid prime in " + file + " for " + bits + " bits");
+						primes.put(bits, p);
+					}
+				} finally {
+					in.close();
+				}
+			} catch(IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		
+		private void store(int bits, BigInteger p) {
+			try {
+				Writer out = new OutputStreamWriter(new FileOutputStream(file, true), UTF8);
+				try {
+					out.write(bits + " " + p.toString(16) + "\n");
+				} finally {
+					out.close();
+				}
+			} catch(IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+	
+	private PrimeProviders() {}
+}
@@ -0,0 +1,302 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.mitre.secretsharing.util.BytesReadable;
+import org.mitre.secretsharing.util.BytesWritable;
+import org.mitre.secretsharing.util.Gf256;
+import org.mitre.secretsharing.util.InputValidation;
+
+/**
+ * Split secrets read from streams into share streams, and join share streams
+ * back into secrets, in constant memory.<p>
+ * 
+ * Streamed secrets are shared byte by byte over GF(2^8), like {@link Gf256Part}s, so each
+ * share byte corresponds to one secret byte and the length of the secret need not be known
+ * in advance.  Each share stream is a header followed by the share bytes.  The header is
+ * a 4-byte big-endian length followed by, as written by {@link BytesWritable}: the stream
+ * format version, the number of required parts, the modulus marker {@code -2} used by
+ * the part formats for {@link Gf256Part}s, a random ID shared by every share of the
+ * same split, and the X coordinate of the share.
+ * @author Robin Kirkman
+ *
+ */
+public abstract class SecretStreams {
+	/**
+	 * The version of the share stream format
+	 */
+	public static final int VERSION = 0;
+	
+	/**
+	 * The number of secret bytes read and split at once
+	 */
+	private static final int CHUNK = 1 << 16;
+	
+	/**
+	 * The largest share header that is read
+	 */
+	private static final int MAX_HEADER = 1024;
+	
+	/**
+	 * The modulus marker written in share headers
+	 */
+	private static final BigInteger MARKER = BigInteger.valueOf(-2);
+	
+	/**
+	 * Split a secret read from a stream into share streams.  The streams are
+	 * flushed but not closed.
+	 * @param secret The stream to read the secret from, until end of stream
+	 * @param shares The streams to write the shares to, one per part
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @return The number of secret bytes read
+	 * @throws IOException If reading or writing fails
+	 */
+	public static long split(InputStream secret, OutputStream[] shares, int requiredParts, Random rnd) throws IOException {
+		InputValidation.begin()
+			.when(secret == null, "secret is null")
+			.when(shares == null, "shares is null")
+			.when(shares != null && shares.length < 1, "totalParts is less than 1")
+			.when(shares != null && shares.length > Gf256Part.MAX_PARTS, "totalParts is greater than " + Gf256Part.MAX_PARTS)
+			.when(requiredParts < 1, "requiredParts is less than 1")
+			.when(shares != null && requiredParts > shares.length, "requiredParts is greater than totalParts")
+			.when(rnd == null, "rnd is null")
+			.validate();
+		int totalParts = shares.length;
+		int[] xs = Secrets.gf256Xs(totalParts, rnd);
+		int[] logx = new int[totalParts];
+		for(int j = 0; j < totalParts; j++)
+			logx[j] = Gf256.log(xs[j]);
+		BigInteger id = BigInteger.valueOf(rnd.nextLong());
+		for(int j = 0; j < totalParts; j++)
+			writeHeader(shares[j], requiredParts, id, xs[j]);
+		
+		byte[] buf = new byte[CHUNK];
+		byte[][] ys = new byte[totalParts][CHUNK];
+		long length = 0;
+		for(int n = readFully(secret, buf); n > 0; n = readFully(secret, buf)) {
+			Gf256Engine.split(buf, 0, n, logx, requiredParts, rnd, ys);
+			for(int j = 0; j < totalParts; j++)
+				shares[j].write(ys[j], 0, n);
+			length += n;
+		}
+		for(OutputStream out : shares)
+			out.flush();
+		return length;
+	}
+	
+	/**
+	 * Split a secret read from a channel into share channels.  The channels are not closed.
+	 * @param secret The channel to read the secret from, until end of stream
+	 * @param shares The channels to write the shares to, one per part
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @return The number of secret bytes read
+	 * @throws IOException If reading or writing fails
+	 * @see #split(InputStream, OutputStream[], int, Random)
+	 */
+	public static long split(ReadableByteChannel secret, WritableByteChannel[] shares, int requiredParts, Random rnd) throws IOException {
+		InputValidation.begin()
+			.when(secret == null, "secret is null")
+			.when(shares == null, "shares is null")
+			.validate();
+		OutputStream[] out = new OutputStream[shares.length];
+		for(int j = 0; j < shares.length; j++) {
+			InputValidation.begin().when(shares[j] == null, "share channel is null").validate();
+			out[j] = Channels.newOutputStream(shares[j]);
+		}
+		return split(Channels.newInputStream(secret), out, requiredParts, rnd);
+	}
+	
+	/**
+	 * Join share streams back into a secret, written to a stream.  The headers of all the
+	 * shares are read and must match, but like {@link Secrets#join(Part[])}, only the first
+	 * required-parts shares are read past their headers and interpolated; the others are
+	 * left unread.  The shares read must all end together.  The secret is written a chunk
+	 * at a time as it is joined, so if one share ends early, the chunks before the failure
+	 * have already been written to {@code secret} when the "inconsistent share lengths"
+	 * exception is thrown.  The streams are flushed but not closed.
+	 * @param shares The streams to read the shares from, the first required-parts of them until end of stream
+	 * @param secret The stream to write the secret to
+	 * @return The number of secret bytes written
+	 * @throws IOException If reading or writing fails
+	 */
+	public static long join(InputStream[] shares, OutputStream secret) throws IOException {
+		InputValidation iv = InputValidation.begin()
+			.when(shares == null, "shares is null")
+			.when(shares != null && shares.length == 0, "shares is empty")
+			.when(secret == null, "secret is null")
+			.validate();
+		Header[] headers = new Header[shares.length];
+		for(int i = 0; i < shares.length; i++) {
+			iv.when(shares[i] == null, "share stream is null").validate();
+			headers[i] = readHeader(shares[i]);
+		}
+		boolean[] seen = new boolean[Gf256.SIZE];
+		int[] x = new int[shares.length];
+		for(int i = 0; i < shares.length; i++) {
+			Header h = headers[i];
+			iv.when(h.requiredParts < 1, "requiredParts is less than 1");
+			iv.when(h.requiredParts != headers[0].requiredParts, "inconsistent number of required parts");
+			iv.when(!h.id.equals(headers[0].id), "shares are from different splits");
+			boolean valid = h.x.signum() > 0 && h.x.bitLength() <= 8;
+			iv.when(!valid, "X coordinate out of range");
+			if(valid) {
+				x[i] = h.x.intValue();
+				iv.when(seen[x[i]], "duplicate X coordinates");
+				seen[x[i]] = true;
+			}
+		}
+		int requiredParts = headers[0].requiredParts;
+		iv.validate()
+			.when(shares.length < requiredParts, requiredParts + " parts required but " + shares.length + " parts provided")
+			.validate();
+		
+		// any requiredParts shares determine the secret, so interpolate through no more
+		int[] logw = Gf256.lagrangeLogWeights(Arrays.copyOf(x, requiredParts));
+		byte[] buf = new byte[CHUNK];
+		byte[][] ys = new byte[requiredParts][CHUNK];
+		long length = 0;
+		for(;;) {
+			int n = readFully(shares[0], ys[0]);
+			for(int i = 1; i < requiredParts; i++)
+				iv.when(readFully(shares[i], ys[i]) != n, "inconsistent share lengths").validate();
+			if(n == 0)
+				break;
+			Gf256Engine.join(ys, logw, 0, n, buf);
+			secret.write(buf, 0, n);
+			length += n;
+		}
+		secret.flush();
+		return length;
+	}
+	
+	/**
+	 * Join share channels back into a secret, written to a channel.  The channels are not closed.
+	 * @param shares The channels to read the shares from, until end of stream
+	 * @param secret The channel to write the secret to
+	 * @return The number of secret bytes written
+	 * @throws IOException If reading or writing fails
+	 * @see #join(InputStream[], OutputStream)
+	 */
+	public static long join(ReadableByteChannel[] shares, WritableByteChannel secret) throws IOException {
+		InputValidation.begin()
+			.when(shares == null, "shares is null")
+			.when(secret == null, "secret is null")
+			.validate();
+		InputStream[] in = new InputStream[shares.length];
+		for(int i = 0; i < shares.length; i++) {
+			InputValidation.begin().when(shares[i] == null, "share channel is null").validate();
+			in[i] = Channels.newInputStream(shares[i]);
+		}
+		return join(in, Channels.newOutputStream(secret));
+	}
+	
+	/**
+	 * The fields of a share stream header
+	 * @author Robin Kirkman
+	 *
+	 */
+	private static class Header {
+		private int requiredParts;
+		private BigInteger id;
+		private BigInteger x;
+	}
+	
+	/**
+	 * Read the header of a share stream
+	 * @param in The share stream
+	 * @return The header
+	 * @throws IOException If reading fails
+	 */
+	private static Header readHeader(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		int len = data.readInt();
+		InputValidation.begin().when(len < 1 || len > MAX_HEADER, "invalid share header length").validate();
+		byte[] b = new byte[len];
+		data.readFully(b);
+		BytesReadable r = new BytesReadable(b);
+		InputValidation.begin().when(r.readInt() != VERSION, "unsupported share stream version").validate();
+		Header h = new Header();
+		h.requiredParts = r.readInt();
+		InputValidation.begin().when(!MARKER.equals(r.readBigInteger()), "unsupported share stream modulus").validate();
+		h.id = r.readBigInteger();
+		h.x = r.readBigInteger();
+		return h;
+	}
+	
+	/**
+	 * Write the header of a share stream
+	 * @param out The share stream
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param id The ID of the split
+	 * @param x The X coordinate of the share
+	 * @throws IOException If writing fails
+	 */
+	private static void writeHeader(OutputStream out, int requiredParts, BigInteger id, int x) throws IOException {
+		InputValidation.begin().when(out == null, "share stream is null").validate();
+		byte[] h = new BytesWritable()
+			.writeInt(VERSION)
+			.writeInt(requiredParts)
+			.writeBigInteger(MARKER)
+			.writeBigInteger(id)
+			.writeBigInteger(BigInteger.valueOf(x))
+			.toByteArray();
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(h.length);
+		data.write(h);
+	}
+	
+	/**
+	 * Read from a stream until a buffer is full or the stream ends
+	 * @param in The stream
+	 * @param buf The buffer
+	 * @return The number of bytes read, which is less than the buffer size only at the end of the stream
+	 * @throws IOException If reading fails
+	 */
+	private static int readFully(InputStream in, byte[] buf) throws IOException {
+		int n = 0;
+		while(n < buf.length) {
+			int r = in.read(buf, n, buf.length - n);
+			if(r < 0)
+				break;
+			n += r;
+		}
+		return n;
+	}
+	
+	private SecretStreams() {}
+}
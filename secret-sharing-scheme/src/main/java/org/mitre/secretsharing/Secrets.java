@@ -24,12 +24,19 @@ us know where this software is being used.
 package org.mitre.secretsharing;
 
 import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
+import org.mitre.secretsharing.codec.PartFormats;
 import org.mitre.secretsharing.util.BigIntegers;
+import org.mitre.secretsharing.util.Gf256;
+import org.mitre.secretsharing.util.Gf65521;
 import org.mitre.secretsharing.util.InputValidation;
 
 /**
@@ -38,6 +45,28 @@ import org.mitre.secretsharing.util.InputValidation;
  *
  */
 public abstract class Secrets {
+	/**
+	 * The {@link LagrangeCache} consulted by the join methods, if any
+	 */
+	private static volatile LagrangeCache lagrangeCache;
+	
+	/**
+	 * Install a {@link LagrangeCache} to be consulted by every join, or remove it.
+	 * Joins compute their Lagrange weights afresh when no cache is installed, which is the default.
+	 * @param cache The cache to install, or {@code null} for no cache
+	 */
+	public static void setLagrangeCache(LagrangeCache cache) {
+		lagrangeCache = cache;
+	}
+	
+	/**
+	 * Return the installed {@link LagrangeCache}
+	 * @return The cache, or {@code null} if none is installed
+	 */
+	public static LagrangeCache getLagrangeCache() {
+		return lagrangeCache;
+	}
+	
 	/**
 	 * Split a secret into a number of parts, using {@link #splitMultibyte(byte[], int, int, Random)}.
 	 * @param secret The secret to split
@@ -52,7 +81,8 @@ public abstract class Secrets {
 	}
 	
 	/**
-	 * Split a secret into a number of parts by treating the secret byte array as a single Y coordinate
+	 * Split a secret into a number of parts by treating the secret byte array as a single Y coordinate.
+	 * The prime modulus comes from {@link PrimeProviders#defaultProvider()}.
 	 * @param secret The secret to split
 	 * @param totalParts The number of parts to create
 	 * @param requiredParts The number of parts required to reconstruct the secret
@@ -60,16 +90,47 @@ public abstract class Secrets {
 	 * @return An array of secret {@link Part}s
 	 */
 	public static Part[] splitMultibyte(byte[] secret, int totalParts, int requiredParts, Random rnd) {
+		return splitMultibyte(secret, totalParts, requiredParts, rnd, null);
+	}
+	
+	/**
+	 * Split a secret into a number of parts by treating the secret byte array as a single Y coordinate,
+	 * evaluating the parts in parallel in a {@link ForkJoinPool}.  The result is the same as
+	 * {@link #splitMultibyte(byte[], int, int, Random)}.
+	 * @param secret The secret to split
+	 * @param totalParts The number of parts to create
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @param pool The pool to evaluate parts in, or {@code null} to evaluate on the calling thread
+	 * @return An array of secret {@link Part}s
+	 */
+	public static Part[] splitMultibyte(byte[] secret, int totalParts, int requiredParts, Random rnd, ForkJoinPool pool) {
+		return splitMultibyte(secret, totalParts, requiredParts, rnd, PrimeProviders.defaultProvider(), pool);
+	}
+	
+	/**
+	 * Split a secret into a number of parts by treating the secret byte array as a single Y coordinate,
+	 * taking the prime modulus from a {@link PrimeProvider}
+	 * @param secret The secret to split
+	 * @param totalParts The number of parts to create
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @param primes The source of the prime modulus
+	 * @param pool The pool to evaluate parts in, or {@code null} to evaluate on the calling thread
+	 * @return An array of secret {@link Part}s
+	 */
+	public static Part[] splitMultibyte(byte[] secret, int totalParts, int requiredParts, Random rnd, PrimeProvider primes, ForkJoinPool pool) {
 		InputValidation.begin()
 			.when(secret == null, "secret is null")
 			.when(totalParts < 1, "totalParts is less than 1")
 			.when(requiredParts > totalParts, "requiredParts is greater than totalParts")
 			.when(rnd == null, "rnd is null")
+			.when(primes == null, "primes is null")
 			.validate();
 		int secretBytes = secret.length;
 		int secretBits = secretBytes * 8;
-		TermPolynomial poly = new TermPolynomial(new BigInteger(secret), secretBits, requiredParts-1, rnd);
-		BigPoint[] pts = poly.p(BigIntegers.range(1, totalParts + 1));
+		ModPolynomial poly = ModPolynomial.secretPolynomial(new BigInteger(secret), secretBits, requiredParts-1, rnd, primes);
+		BigPoint[] pts = poly.p(BigIntegers.range(1, totalParts + 1), pool);
 		Part[] s = new Part[totalParts];
 		for(int i = 0; i < totalParts; i++)
 			s[i] = new Part(secretBytes, requiredParts, poly.getModulus(), pts[i]);
@@ -85,46 +146,393 @@ public abstract class Secrets {
 	 * @return An array of secret {@link Part}s
 	 */
 	public static PerBytePart[] splitPerByte(byte[] secret, int totalParts, int requiredParts, Random rnd) {
+		return splitPerByte(secret, totalParts, requiredParts, rnd, null);
+	}
+	
+	/**
+	 * Split a secret into a number of parts by treating the secret byte array as individual secrets of 1 byte each,
+	 * splitting chunks of the secret in parallel in a {@link ForkJoinPool}.  Each chunk uses its own random,
+	 * seeded from {@code rnd}, so the result is not the same as {@link #splitPerByte(byte[], int, int, Random)}.
+	 * @param secret The secret to split
+	 * @param totalParts The number of parts to create
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @param pool The pool to split in, or {@code null} to split on the calling thread
+	 * @return An array of secret {@link Part}s
+	 */
+	public static PerBytePart[] splitPerByte(final byte[] secret, int totalParts, final int requiredParts, Random rnd, ForkJoinPool pool) {
 		InputValidation.begin()
 			.when(secret == null, "secret is null")
 			.when(totalParts < 1, "totalParts is less than 1")
 			.when(totalParts > PerBytePart.MAX_PARTS, "totalParts is greater than " + PerBytePart.MAX_PARTS)
+			.when(requiredParts < 1, "requiredParts is less than 1")
+			.when(requiredParts > totalParts, "requiredParts is greater than totalParts")
+			.when(rnd == null, "rnd is null")
+			.validate();
+		final int[] x = randomXs(totalParts, Gf65521.P - 1, rnd);
+		final int[][] xp = PerByteEngine.powers(x, requiredParts);
+		final char[][] ys = new char[totalParts][secret.length];
+		new ParallelBytes() {
+			@Override
+			protected void run(int from, int to, Random rnd) {
+				PerByteEngine.split(secret, from, to, x, xp, requiredParts, rnd, ys);
+			}
+		}.invoke(secret.length, rnd, pool);
+		PerBytePart[] parts = new PerBytePart[totalParts];
+		for(int j = 0; j < totalParts; j++)
+			parts[j] = new PerBytePart(2, secret.length, requiredParts, x[j], ys[j]);
+		return parts;
+	}
+	
+	/**
+	 * Split a batch of secrets, each into a number of parts by treating the secret byte array as a
+	 * single Y coordinate.  The X coordinates are shared by the whole batch, and secrets of the same
+	 * length share a prime modulus, taken once from {@link PrimeProviders#defaultProvider()},
+	 * and the powers of each X coordinate modulo that prime, so each part is a dot product of
+	 * the secret's coefficients with a precomputed row.
+	 * @param secrets The secrets to split
+	 * @param totalParts The number of parts to create for each secret
+	 * @param requiredParts The number of parts required to reconstruct each secret
+	 * @param rnd A source of random
+	 * @return The parts of every secret
+	 */
+	public static SplitBatch splitBatch(List<byte[]> secrets, int totalParts, int requiredParts, Random rnd) {
+		InputValidation iv = InputValidation.begin()
+			.when(secrets == null, "secrets is null")
+			.when(totalParts < 1, "totalParts is less than 1")
+			.when(requiredParts < 1, "requiredParts is less than 1")
 			.when(requiredParts > totalParts, "requiredParts is greater than totalParts")
 			.when(rnd == null, "rnd is null")
 			.validate();
-		List<Integer> xs = new ArrayList<Integer>();
-		for(int i = 1; i < PerBytePart.MODULUS.intValue(); i++)
-			xs.add(i);
-		BigPoint[][] pts = new BigPoint[totalParts][secret.length];
-		BigInteger[] x = new BigInteger[totalParts];
-		for(int j = 0; j < x.length; j++)
-			x[j] = BigInteger.valueOf(xs.remove((int)(rnd.nextDouble() * xs.size())));
-		for(int i = 0; i < secret.length; i++) {
-			TermPolynomial poly = TermPolynomial.ONE.multiply(BigInteger.valueOf(0xFF & secret[i]));
-			for(int j = 0; j < requiredParts-1; j++)
-				poly = poly.add(TermPolynomial.ONE.multiply(BigInteger.valueOf((long)(PerBytePart.MODULUS.longValue() * rnd.nextDouble()))).powX(j+1));
-			poly = new TermPolynomial(poly.getTerms(), PerBytePart.MODULUS);
+		for(byte[] secret : secrets)
+			iv.when(secret == null, "secret is null");
+		iv.validate();
+		
+		final Map<Integer, BigInteger> primes = new HashMap<Integer, BigInteger>();
+		PrimeProvider batchPrimes = new PrimeProvider() {
+			@Override
+			public BigInteger prime(int bits, Random rnd) {
+				BigInteger p = primes.get(bits);
+				if(p == null)
+					primes.put(bits, p = PrimeProviders.defaultProvider().prime(bits, rnd));
+				return p;
+			}
+		};
+		BigInteger[] x = BigIntegers.range(1, totalParts + 1);
+		// secrets sharing a prime share the X coordinates too, so each x^i mod p is computed once
+		Map<BigInteger, BigInteger[][]> powers = new HashMap<BigInteger, BigInteger[][]>();
+		int[] lengths = new int[secrets.size()];
+		BigInteger[] moduli = new BigInteger[lengths.length];
+		BigInteger[][] y = new BigInteger[lengths.length][totalParts];
+		for(int i = 0; i < lengths.length; i++) {
+			byte[] secret = secrets.get(i);
+			lengths[i] = secret.length;
+			ModPolynomial poly = ModPolynomial.secretPolynomial(new BigInteger(secret), secret.length * 8, requiredParts - 1, rnd, batchPrimes);
+			BigInteger prime = poly.getModulus();
+			BigInteger[][] xpow = powers.get(prime);
+			if(xpow == null)
+				powers.put(prime, xpow = powers(x, requiredParts, prime));
+			BigInteger[] coeffs = poly.getCoefficients();
+			moduli[i] = prime;
 			for(int j = 0; j < totalParts; j++) {
-				pts[j][i] = poly.p(x[j]);
+				BigInteger yj = BigInteger.ZERO;
+				for(int c = 0; c < coeffs.length; c++)
+					yj = yj.add(coeffs[c].multiply(xpow[j][c]));
+				y[i][j] = yj.mod(prime);
 			}
 		}
-		PerBytePart[] parts = new PerBytePart[totalParts];
-		for(int j = 0; j < totalParts; j++) {
-			byte[] b = new byte[1 + secret.length * 2];
-			for(int i = 0; i < secret.length; i++) {
-				short v = pts[j][i].getY().shortValue();
-				b[2*i+1] = (byte)(v >>> 8);
-				b[2*i+2] = (byte) v;
+		return SplitBatch.multibyte(totalParts, requiredParts, lengths, moduli, y);
+	}
+	
+	/**
+	 * Compute the powers x^0 through x^(count-1) of each X coordinate modulo a prime
+	 * @param x The X coordinates
+	 * @param count The number of powers of each coordinate
+	 * @param prime The modulus
+	 * @return The powers, indexed by coordinate and then by exponent
+	 */
+	private static BigInteger[][] powers(BigInteger[] x, int count, BigInteger prime) {
+		BigInteger[][] xpow = new BigInteger[x.length][count];
+		for(int j = 0; j < x.length; j++) {
+			xpow[j][0] = BigInteger.ONE;
+			for(int i = 1; i < count; i++)
+				xpow[j][i] = xpow[j][i - 1].multiply(x[j]).mod(prime);
+		}
+		return xpow;
+	}
+	
+	/**
+	 * Split a batch of secrets, each into a number of parts by treating the secret byte array as
+	 * individual secrets of 1 byte each
+	 * @param secrets The secrets to split
+	 * @param totalParts The number of parts to create for each secret
+	 * @param requiredParts The number of parts required to reconstruct each secret
+	 * @param rnd A source of random
+	 * @return The parts of every secret
+	 */
+	public static SplitBatch splitPerByteBatch(List<byte[]> secrets, int totalParts, int requiredParts, Random rnd) {
+		return splitPerByteBatch(secrets, totalParts, requiredParts, rnd, null);
+	}
+	
+	/**
+	 * Split a batch of secrets, each into a number of parts by treating the secret byte array as
+	 * individual secrets of 1 byte each, splitting chunks in parallel in a {@link ForkJoinPool}.
+	 * The X coordinates and their table of powers are shared by the whole batch, which is split
+	 * as if it were a single secret made of all the secrets concatenated.
+	 * @param secrets The secrets to split
+	 * @param totalParts The number of parts to create for each secret
+	 * @param requiredParts The number of parts required to reconstruct each secret
+	 * @param rnd A source of random
+	 * @param pool The pool to split in, or {@code null} to split on the calling thread
+	 * @return The parts of every secret
+	 */
+	public static SplitBatch splitPerByteBatch(List<byte[]> secrets, int totalParts, final int requiredParts, Random rnd, ForkJoinPool pool) {
+		InputValidation iv = InputValidation.begin()
+			.when(secrets == null, "secrets is null")
+			.when(totalParts < 1, "totalParts is less than 1")
+			.when(totalParts > PerBytePart.MAX_PARTS, "totalParts is greater than " + PerBytePart.MAX_PARTS)
+			.when(requiredParts < 1, "requiredParts is less than 1")
+			.when(requiredParts > totalParts, "requiredParts is greater than totalParts")
+			.when(rnd == null, "rnd is null")
+			.validate();
+		final int[] offsets = new int[secrets.size() + 1];
+		for(int i = 0; i < secrets.size(); i++) {
+			byte[] secret = secrets.get(i);
+			iv.when(secret == null, "secret is null").validate();
+			offsets[i + 1] = offsets[i] + secret.length;
+		}
+		final byte[] all = new byte[offsets[secrets.size()]];
+		for(int i = 0; i < secrets.size(); i++)
+			System.arraycopy(secrets.get(i), 0, all, offsets[i], offsets[i + 1] - offsets[i]);
+		
+		final int[] x = randomXs(totalParts, Gf65521.P - 1, rnd);
+		final int[][] xp = PerByteEngine.powers(x, requiredParts);
+		final char[][] ys = new char[totalParts][all.length];
+		new ParallelBytes() {
+			@Override
+			protected void run(int from, int to, Random rnd) {
+				PerByteEngine.split(all, from, to, x, xp, requiredParts, rnd, ys);
+			}
+		}.invoke(all.length, rnd, pool);
+		return SplitBatch.perByte(requiredParts, x, offsets, ys);
+	}
+	
+	/**
+	 * Pick distinct random X coordinates from the range {@code 1} to {@code max}, inclusive.
+	 * Each X coordinate is the {@code (int)(rnd.nextDouble() * remaining)}th of the values
+	 * not yet picked, in ascending order, which is found by binary search over the
+	 * sorted values already picked rather than by keeping a list of the values remaining.
+	 * @param count The number of X coordinates to pick
+	 * @param max The largest X coordinate
+	 * @param rnd A source of random
+	 * @return The X coordinates, in the order they were picked
+	 */
+	private static int[] randomXs(int count, int max, Random rnd) {
+		int[] x = new int[count];
+		int[] sorted = new int[count];
+		for(int n = 0; n < count; n++) {
+			int r = 1 + (int)(rnd.nextDouble() * (max - n));
+			// sorted[i] - i - 1 values less than sorted[i] have not been picked,
+			// so count the picked values that precede the rth value not picked
+			int lo = 0;
+			int hi = n;
+			while(lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if(sorted[mid] - mid <= r)
+					lo = mid + 1;
+				else
+					hi = mid;
 			}
-			parts[j] = new PerBytePart(2, secret.length, requiredParts, new BigPoint(x[j], new BigInteger(b)));
+			x[n] = r + lo;
+			System.arraycopy(sorted, lo, sorted, lo + 1, n - lo);
+			sorted[lo] = x[n];
 		}
+		return x;
+	}
+	
+	/**
+	 * Split a secret into a number of parts by treating the secret byte array as individual secrets
+	 * of 1 byte each, shared over the finite field GF(2^8).  Each Y coordinate is a single byte,
+	 * so each part is the same size as the secret.
+	 * @param secret The secret to split
+	 * @param totalParts The number of parts to create
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @return An array of secret {@link Part}s
+	 */
+	public static Gf256Part[] splitGf256(byte[] secret, int totalParts, int requiredParts, Random rnd) {
+		return splitGf256(secret, totalParts, requiredParts, rnd, null);
+	}
+	
+	/**
+	 * Split a secret into a number of parts by treating the secret byte array as individual secrets
+	 * of 1 byte each, shared over the finite field GF(2^8), splitting chunks of the secret in parallel
+	 * in a {@link ForkJoinPool}.  Each chunk uses its own random, seeded from {@code rnd}.
+	 * @param secret The secret to split
+	 * @param totalParts The number of parts to create
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @param pool The pool to split in, or {@code null} to split on the calling thread
+	 * @return An array of secret {@link Part}s
+	 */
+	public static Gf256Part[] splitGf256(final byte[] secret, int totalParts, final int requiredParts, Random rnd, ForkJoinPool pool) {
+		InputValidation.begin()
+			.when(secret == null, "secret is null")
+			.when(totalParts < 1, "totalParts is less than 1")
+			.when(totalParts > Gf256Part.MAX_PARTS, "totalParts is greater than " + Gf256Part.MAX_PARTS)
+			.when(requiredParts < 1, "requiredParts is less than 1")
+			.when(requiredParts > totalParts, "requiredParts is greater than totalParts")
+			.when(rnd == null, "rnd is null")
+			.validate();
+		int[] xs = gf256Xs(totalParts, rnd);
+		final int[] logx = new int[totalParts];
+		for(int j = 0; j < totalParts; j++)
+			logx[j] = Gf256.log(xs[j]);
+		
+		final byte[][] ys = new byte[totalParts][secret.length];
+		new ParallelBytes() {
+			@Override
+			protected void run(int from, int to, Random rnd) {
+				Gf256Engine.split(secret, from, to, logx, requiredParts, rnd, ys);
+			}
+		}.invoke(secret.length, rnd, pool);
+		
+		int version = PartFormats.StringFormats.VERSION_4.getVersion();
+		Gf256Part[] parts = new Gf256Part[totalParts];
+		for(int j = 0; j < totalParts; j++)
+			parts[j] = new Gf256Part(version, secret.length, requiredParts, new BigPoint(BigInteger.valueOf(xs[j]), new BigInteger(1, ys[j])));
+		return parts;
+	}
+	
+	/**
+	 * Pick distinct nonzero X coordinates for {@link Gf256Part}s with a partial Fisher-Yates shuffle
+	 * @param count The number of X coordinates to pick, at most {@link Gf256Part#MAX_PARTS}
+	 * @param rnd A source of random
+	 * @return The X coordinates, in the order they were picked
+	 */
+	static int[] gf256Xs(int count, Random rnd) {
+		int[] xs = new int[Gf256Part.MAX_PARTS];
+		for(int i = 0; i < xs.length; i++)
+			xs[i] = i + 1;
+		for(int j = 0; j < count; j++) {
+			int r = j + rnd.nextInt(xs.length - j);
+			int t = xs[r];
+			xs[r] = xs[j];
+			xs[j] = t;
+		}
+		return Arrays.copyOf(xs, count);
+	}
+	
+	/**
+	 * Split a secret into a number of parts by cutting the secret byte array into 32-byte blocks,
+	 * each shared over the fixed prime {@link BlockPart#PRIME_256}
+	 * @param secret The secret to split
+	 * @param totalParts The number of parts to create
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @return An array of secret {@link Part}s
+	 */
+	public static BlockPart[] splitBlocks(byte[] secret, int totalParts, int requiredParts, Random rnd) {
+		return splitBlocks(secret, totalParts, requiredParts, BlockPart.PRIME_256, rnd, null);
+	}
+	
+	/**
+	 * Split a secret into a number of parts by cutting the secret byte array into fixed-width blocks,
+	 * each shared over a fixed prime, splitting chunks of blocks in parallel in a {@link ForkJoinPool}.
+	 * Each chunk uses its own random, seeded from {@code rnd}.
+	 * @param secret The secret to split
+	 * @param totalParts The number of parts to create
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param primeId The ID of the prime, which determines the block size
+	 * @param rnd A source of random
+	 * @param pool The pool to split in, or {@code null} to split on the calling thread
+	 * @return An array of secret {@link Part}s
+	 */
+	public static BlockPart[] splitBlocks(final byte[] secret, int totalParts, final int requiredParts, final int primeId, Random rnd, ForkJoinPool pool) {
+		InputValidation.begin()
+			.when(secret == null, "secret is null")
+			.when(totalParts < 1, "totalParts is less than 1")
+			.when(requiredParts < 1, "requiredParts is less than 1")
+			.when(requiredParts > totalParts, "requiredParts is greater than totalParts")
+			.when(!BlockPart.isPrimeId(primeId), "unknown prime ID " + primeId)
+			.when(rnd == null, "rnd is null")
+			.validate();
+		final BigInteger[] x = BigIntegers.range(1, totalParts + 1);
+		int blocks = BlockPart.blocks(secret.length, primeId);
+		final byte[][] ys = new byte[totalParts][blocks * (BlockPart.blockBytes(primeId) + 1)];
+		new ParallelBytes() {
+			@Override
+			protected void run(int from, int to, Random rnd) {
+				BlockEngine.split(secret, from, to, primeId, x, requiredParts, rnd, ys);
+			}
+		}.invoke(blocks, rnd, pool);
+		
+		int version = PartFormats.StringFormats.VERSION_5.getVersion();
+		BlockPart[] parts = new BlockPart[totalParts];
+		for(int j = 0; j < totalParts; j++)
+			parts[j] = new BlockPart(version, secret.length, requiredParts, primeId, new BigPoint(x[j], new BigInteger(1, ys[j])));
+		return parts;
+	}
+	
+	/**
+	 * Split a secret into a number of parts by cutting the secret byte array into 7-byte elements,
+	 * each shared over the Mersenne prime {@code 2^61 - 1}
+	 * @param secret The secret to split
+	 * @param totalParts The number of parts to create
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @return An array of secret {@link Part}s
+	 */
+	public static M61Part[] splitM61(byte[] secret, int totalParts, int requiredParts, Random rnd) {
+		return splitM61(secret, totalParts, requiredParts, rnd, null);
+	}
+	
+	/**
+	 * Split a secret into a number of parts by cutting the secret byte array into 7-byte elements,
+	 * each shared over the Mersenne prime {@code 2^61 - 1}, splitting chunks of elements in parallel
+	 * in a {@link ForkJoinPool}.  Each chunk uses its own random, seeded from {@code rnd}.
+	 * @param secret The secret to split
+	 * @param totalParts The number of parts to create
+	 * @param requiredParts The number of parts required to reconstruct the secret
+	 * @param rnd A source of random
+	 * @param pool The pool to split in, or {@code null} to split on the calling thread
+	 * @return An array of secret {@link Part}s
+	 */
+	public static M61Part[] splitM61(final byte[] secret, int totalParts, final int requiredParts, Random rnd, ForkJoinPool pool) {
+		InputValidation.begin()
+			.when(secret == null, "secret is null")
+			.when(totalParts < 1, "totalParts is less than 1")
+			.when(requiredParts < 1, "requiredParts is less than 1")
+			.when(requiredParts > totalParts, "requiredParts is greater than totalParts")
+			.when(rnd == null, "rnd is null")
+			.validate();
+		final long[] x = new long[totalParts];
+		for(int j = 0; j < totalParts; j++)
+			x[j] = j + 1;
+		int elements = M61Part.elements(secret.length);
+		final byte[][] ys = new byte[totalParts][elements * 8];
+		new ParallelBytes() {
+			@Override
+			protected void run(int from, int to, Random rnd) {
+				M61Engine.split(secret, from, to, x, requiredParts, rnd, ys);
+			}
+		}.invoke(elements, rnd, pool);
+		
+		int version = PartFormats.StringFormats.VERSION_6.getVersion();
+		M61Part[] parts = new M61Part[totalParts];
+		for(int j = 0; j < totalParts; j++)
+			parts[j] = new M61Part(version, secret.length, requiredParts, new BigPoint(BigInteger.valueOf(x[j]), new BigInteger(1, ys[j])));
 		return parts;
 	}
 	
 	/**
 	 * Join {@link Part}s of a secret back into a byte array.
 	 * Calls {@link Part#join(Part...)} on the first element in
-	 * the array, which is overridden by {@link PerBytePart#join(Part...)}
+	 * the array, which is overridden by {@link PerBytePart#join(Part...)},
+	 * {@link Gf256Part#join(Part...)}, {@link BlockPart#join(Part...)} and {@link M61Part#join(Part...)}.
+	 * Only the first {@link Part#getRequiredParts()} parts are interpolated; any further parts are
+	 * validated but otherwise ignored.  Use {@link #inconsistentParts(Part[])} to check them
+	 * against the rest.
 	 * @param parts The array of parts to join, of length at least one
 	 * @return The reconstructed secret byte array
 	 */
@@ -137,7 +545,9 @@ public abstract class Secrets {
 	}
 
 	/**
-	 * Recover a secret from an array of {@link Part}s
+	 * Recover a secret from an array of {@link Part}s.  Only the first {@link Part#getRequiredParts()}
+	 * parts are interpolated; any further parts are validated but otherwise ignored.
+	 * Use {@link #inconsistentParts(Part[])} to check them against the rest.
 	 * @param parts The array of secret parts
 	 * @return The recovered secret
 	 */
@@ -150,77 +560,310 @@ public abstract class Secrets {
 		Integer secretLength = null;
 		Integer requiredParts = null;
 		BigInteger prime = null;
+		Set<BigInteger> xs = new HashSet<BigInteger>();
 		for(Part part : parts) {
 			secretLength = (secretLength == null ? part.getLength() : secretLength);
 			requiredParts = (requiredParts == null ? part.getRequiredParts() : requiredParts);
 			prime = (prime == null ? part.getModulus() : prime);
 
 			iv.when(part instanceof PerBytePart, "perbyte parts cannot be used for multibyte join");
+			iv.when(part instanceof Gf256Part, "gf256 parts cannot be used for multibyte join");
+			iv.when(part instanceof BlockPart, "block parts cannot be used for multibyte join");
+			iv.when(part instanceof M61Part, "m61 parts cannot be used for multibyte join");
 			iv.when(part.getLength() != secretLength, "inconsistent secret lengths");
 			iv.when(part.getRequiredParts() != requiredParts, "inconsistent number of required parts");
 			iv.when(!part.getModulus().equals(prime), "inconsistent moduli");
+			iv.when(!xs.add(part.getPoint().getX().mod(prime)), "duplicate X coordinates");
 		}
 		iv.validate()
 			.when(parts.length < requiredParts, requiredParts + " parts required but " + parts.length + " parts provided")
 			.validate();
 		
-		BigPoint[] pts = new BigPoint[parts.length];
-		for(int i = 0; i < pts.length; i++) {
-			pts[i] = parts[i].getPoint();
+		// any requiredParts parts determine the secret, so interpolate through no more
+		BigInteger[] x = new BigInteger[requiredParts];
+		BigInteger[] y = new BigInteger[requiredParts];
+		for(int i = 0; i < x.length; i++) {
+			x[i] = parts[i].getPoint().getX();
+			y[i] = parts[i].getPoint().getY();
 		}
-		
-		TermPolynomial poly = new TermPolynomial(pts, prime);
-		byte[] secret = poly.y(BigInteger.ZERO).getNumerator().mod(prime).add(prime).mod(prime).toByteArray();
+		byte[] secret = BigIntegers.weightedZero(LagrangeCache.multibyte(x, prime), y, prime).toByteArray();
 		byte[] ret = new byte[secretLength];
 		System.arraycopy(secret, 0, ret, ret.length - secret.length, secret.length);
 		return ret;
 	}
 
+	/**
+	 * Find the parts of a secret that disagree with the rest.  Any {@link Part#getRequiredParts()}
+	 * parts determine a secret, so the join methods use only the first that many parts given and
+	 * ignore the others.  This checks each of the others against the polynomial through the
+	 * first parts, by interpolating it at the part's X coordinate, which costs no more per part
+	 * than a join.  A part that has been corrupted or tampered with disagrees.  When every
+	 * other part disagrees, the fault is more likely in one of the first parts.
+	 * @param parts The parts of a secret, at least {@link Part#getRequiredParts()} of them
+	 * @return A new array of the parts after the first {@link Part#getRequiredParts()} that
+	 * disagree with them, in the order given, which is empty if every part agrees
+	 */
+	public static Part[] inconsistentParts(Part[] parts) {
+		return ConsistencyCheck.check(parts);
+	}
+
+	/**
+	 * Recover a batch of secrets, such as the secrets held by one set of share holders.
+	 * Secrets whose parts have the same type, length, modulus and X coordinates share one
+	 * computation of their Lagrange weights, so a large batch from a few sets of share holders
+	 * costs little more than its dot products.
+	 * Only the first {@link Part#getRequiredParts()} parts of each secret are interpolated, as for {@link #join(Part[])}.
+	 * @param secrets The parts of each secret, each of which could be passed to {@link #join(Part[])}
+	 * @return The recovered secrets, in the same order
+	 */
+	public static byte[][] joinBatch(List<Part[]> secrets) {
+		return BatchJoin.join(secrets);
+	}
+	
 	/**
 	 * Recover a per-byte secret from an array of {@link PerBytePart}s
 	 * @param parts The secret parts
 	 * @return The recovered secret
 	 */
 	public static byte[] joinPerByte(PerBytePart[] parts) {
+		return joinPerByte(parts, null);
+	}
+	
+	/**
+	 * Recover a per-byte secret from an array of {@link PerBytePart}s,
+	 * joining chunks of the secret in parallel in a {@link ForkJoinPool}
+	 * Only the first {@link Part#getRequiredParts()} parts are interpolated, as for {@link #join(Part[])}.
+	 * @param parts The secret parts
+	 * @param pool The pool to join in, or {@code null} to join on the calling thread
+	 * @return The recovered secret
+	 */
+	public static byte[] joinPerByte(PerBytePart[] parts, ForkJoinPool pool) {
 		InputValidation iv = InputValidation.begin()
 				.when(parts == null, "parts array is null")
 				.when(parts != null && parts.length == 0, "parts array is empty")
 				.validate();
 			
-		Part.PublicSecretPart pub = parts[0].getPublicPart();
-		byte[] secret = new byte[pub.getLength()];
-		BigPoint[][] pts = new BigPoint[secret.length][parts.length];
-		Integer secretLength = null;
-		Integer requiredParts = null;
-		for(Part part : parts) {
-			secretLength = (secretLength == null ? part.getLength() : secretLength);
-			requiredParts = (requiredParts == null ? part.getRequiredParts() : requiredParts);
-
+		int secretLength = parts[0].getLength();
+		int requiredParts = parts[0].getRequiredParts();
+		boolean[] seen = new boolean[Gf65521.P];
+		int[] x = new int[parts.length];
+		for(int i = 0; i < parts.length; i++) {
+			Part part = parts[i];
 			iv.when(!(part instanceof PerBytePart), "multibyte parts cannot be used for perbyte join");
 			iv.when(part.getLength() != secretLength, "inconsistent secret lengths");
 			iv.when(part.getRequiredParts() != requiredParts, "inconsistent number of required parts");
 			iv.when(!part.getModulus().equals(PerBytePart.MODULUS), "inconsistent moduli");
+			BigInteger px = part.getPoint().getX();
+			boolean valid = px.signum() > 0 && px.compareTo(PerBytePart.MODULUS) < 0;
+			iv.when(!valid, "X coordinate out of range");
+			if(valid) {
+				x[i] = px.intValue();
+				iv.when(seen[x[i]], "duplicate X coordinates");
+				seen[x[i]] = true;
+			}
+		}
+		iv.validate()
+			.when(parts.length < requiredParts, requiredParts + " parts required but " + parts.length + " parts provided")
+			.validate();
+		
+		// any requiredParts parts determine the secret, so interpolate through no more
+		final char[][] ys = new char[requiredParts][];
+		for(int i = 0; i < requiredParts; i++)
+			ys[i] = parts[i].values();
+		
+		final int[] w = LagrangeCache.perByte(Arrays.copyOf(x, requiredParts));
+		final byte[] secret = new byte[secretLength];
+		new ParallelBytes() {
+			@Override
+			protected void run(int from, int to, Random rnd) {
+				PerByteEngine.join(ys, w, from, to, secret);
+			}
+		}.invoke(secretLength, null, pool);
+		return secret;
+	}
+	
+	/**
+	 * Recover a GF(2^8) per-byte secret from an array of {@link Gf256Part}s
+	 * @param parts The secret parts
+	 * @return The recovered secret
+	 */
+	public static byte[] joinGf256(Gf256Part[] parts) {
+		return joinGf256(parts, null);
+	}
+	
+	/**
+	 * Recover a GF(2^8) per-byte secret from an array of {@link Gf256Part}s,
+	 * joining chunks of the secret in parallel in a {@link ForkJoinPool}
+	 * Only the first {@link Part#getRequiredParts()} parts are interpolated, as for {@link #join(Part[])}.
+	 * @param parts The secret parts
+	 * @param pool The pool to join in, or {@code null} to join on the calling thread
+	 * @return The recovered secret
+	 */
+	public static byte[] joinGf256(Gf256Part[] parts, ForkJoinPool pool) {
+		InputValidation iv = InputValidation.begin()
+				.when(parts == null, "parts array is null")
+				.when(parts != null && parts.length == 0, "parts array is empty")
+				.validate();
+		
+		int secretLength = parts[0].getLength();
+		int requiredParts = parts[0].getRequiredParts();
+		boolean[] seen = new boolean[Gf256.SIZE];
+		int[] x = new int[parts.length];
+		for(int i = 0; i < parts.length; i++) {
+			Part part = parts[i];
+			iv.when(!(part instanceof Gf256Part), "other parts cannot be used for gf256 join");
+			iv.when(part.getLength() != secretLength, "inconsistent secret lengths");
+			iv.when(part.getRequiredParts() != requiredParts, "inconsistent number of required parts");
+			iv.when(!part.getModulus().equals(Gf256Part.MODULUS), "inconsistent moduli");
+			BigInteger px = part.getPoint().getX();
+			boolean valid = px.signum() > 0 && px.bitLength() <= 8;
+			iv.when(!valid, "X coordinate out of range");
+			if(valid) {
+				x[i] = px.intValue();
+				iv.when(seen[x[i]], "duplicate X coordinates");
+				seen[x[i]] = true;
+			}
 		}
 		iv.validate()
 			.when(parts.length < requiredParts, requiredParts + " parts required but " + parts.length + " parts provided")
 			.validate();
 		
+		// any requiredParts parts determine the secret, so interpolate through no more
+		final byte[][] ys = new byte[requiredParts][];
+		for(int i = 0; i < requiredParts; i++)
+			ys[i] = BigIntegers.toBytes(parts[i].getPoint().getY(), secretLength);
+		
+		final int[] w = LagrangeCache.gf256(Arrays.copyOf(x, requiredParts));
+		final byte[] secret = new byte[secretLength];
+		new ParallelBytes() {
+			@Override
+			protected void run(int from, int to, Random rnd) {
+				Gf256Engine.join(ys, w, from, to, secret);
+			}
+		}.invoke(secretLength, null, pool);
+		return secret;
+	}
+	
+	/**
+	 * Recover a block secret from an array of {@link BlockPart}s
+	 * @param parts The secret parts
+	 * @return The recovered secret
+	 */
+	public static byte[] joinBlocks(BlockPart[] parts) {
+		return joinBlocks(parts, null);
+	}
+	
+	/**
+	 * Recover a block secret from an array of {@link BlockPart}s,
+	 * joining chunks of blocks in parallel in a {@link ForkJoinPool}
+	 * Only the first {@link Part#getRequiredParts()} parts are interpolated, as for {@link #join(Part[])}.
+	 * @param parts The secret parts
+	 * @param pool The pool to join in, or {@code null} to join on the calling thread
+	 * @return The recovered secret
+	 */
+	public static byte[] joinBlocks(BlockPart[] parts, ForkJoinPool pool) {
+		InputValidation iv = InputValidation.begin()
+				.when(parts == null, "parts array is null")
+				.when(parts != null && parts.length == 0, "parts array is empty")
+				.validate();
+		
+		int secretLength = parts[0].getLength();
+		int requiredParts = parts[0].getRequiredParts();
+		final int primeId = parts[0].getPrimeId();
+		BigInteger prime = BlockPart.prime(primeId);
+		Set<BigInteger> seen = new HashSet<BigInteger>();
+		BigInteger[] x = new BigInteger[parts.length];
 		for(int i = 0; i < parts.length; i++) {
-			byte[] b = parts[i].getPrivatePart().getPoint().getY().toByteArray();
-			byte[] pb = new byte[secret.length * 2];
-			if(b.length > pb.length)
-				pb = Arrays.copyOfRange(b, b.length - pb.length, b.length);
-			else
-				System.arraycopy(b, 0, pb, pb.length - b.length, b.length);
-			for(int j = 0; j < secret.length; j++)
-				pts[j][i] = new BigPoint(parts[i].getPrivatePart().getPoint().getX(), BigInteger.valueOf(((0xFF & pb[2*j]) << 8) | (0xFF & pb[2*j+1])));
+			Part part = parts[i];
+			iv.when(!(part instanceof BlockPart), "other parts cannot be used for block join");
+			iv.when(part.getLength() != secretLength, "inconsistent secret lengths");
+			iv.when(part.getRequiredParts() != requiredParts, "inconsistent number of required parts");
+			iv.when(!part.getModulus().equals(prime), "inconsistent moduli");
+			x[i] = part.getPoint().getX();
+			iv.when(x[i].signum() <= 0 || x[i].compareTo(prime) >= 0, "X coordinate out of range");
+			iv.when(!seen.add(x[i]), "duplicate X coordinates");
 		}
+		iv.validate()
+			.when(parts.length < requiredParts, requiredParts + " parts required but " + parts.length + " parts provided")
+			.validate();
+		
+		int blocks = BlockPart.blocks(secretLength, primeId);
+		int width = BlockPart.blockBytes(primeId) + 1;
+		// any requiredParts parts determine the secret, so interpolate through no more
+		final byte[][] ys = new byte[requiredParts][];
+		for(int i = 0; i < requiredParts; i++)
+			ys[i] = BigIntegers.toBytes(parts[i].getPoint().getY(), blocks * width);
+		
+		final BigInteger[] w = LagrangeCache.block(Arrays.copyOf(x, requiredParts), prime);
+		final byte[] secret = new byte[secretLength];
+		new ParallelBytes() {
+			@Override
+			protected void run(int from, int to, Random rnd) {
+				BlockEngine.join(ys, w, primeId, from, to, secret);
+			}
+		}.invoke(blocks, null, pool);
+		return secret;
+	}
+	
+	/**
+	 * Recover a Mersenne-61 secret from an array of {@link M61Part}s
+	 * @param parts The secret parts
+	 * @return The recovered secret
+	 */
+	public static byte[] joinM61(M61Part[] parts) {
+		return joinM61(parts, null);
+	}
+	
+	/**
+	 * Recover a Mersenne-61 secret from an array of {@link M61Part}s,
+	 * joining chunks of elements in parallel in a {@link ForkJoinPool}
+	 * Only the first {@link Part#getRequiredParts()} parts are interpolated, as for {@link #join(Part[])}.
+	 * @param parts The secret parts
+	 * @param pool The pool to join in, or {@code null} to join on the calling thread
+	 * @return The recovered secret
+	 */
+	public static byte[] joinM61(M61Part[] parts, ForkJoinPool pool) {
+		InputValidation iv = InputValidation.begin()
+				.when(parts == null, "parts array is null")
+				.when(parts != null && parts.length == 0, "parts array is empty")
+				.validate();
 		
-		for(int i = 0; i < secret.length; i++) {
-			TermPolynomial poly = new TermPolynomial(pts[i], pub.getModulus());
-			secret[i] = poly.y(BigInteger.ZERO).getNumerator().mod(pub.getModulus()).add(pub.getModulus()).mod(pub.getModulus()).byteValue();
+		int secretLength = parts[0].getLength();
+		int requiredParts = parts[0].getRequiredParts();
+		Set<Long> seen = new HashSet<Long>();
+		long[] x = new long[parts.length];
+		for(int i = 0; i < parts.length; i++) {
+			Part part = parts[i];
+			iv.when(!(part instanceof M61Part), "other parts cannot be used for m61 join");
+			iv.when(part.getLength() != secretLength, "inconsistent secret lengths");
+			iv.when(part.getRequiredParts() != requiredParts, "inconsistent number of required parts");
+			iv.when(!part.getModulus().equals(M61Part.MODULUS), "inconsistent moduli");
+			BigInteger px = part.getPoint().getX();
+			boolean valid = px.signum() > 0 && px.compareTo(M61Part.MODULUS) < 0;
+			iv.when(!valid, "X coordinate out of range");
+			if(valid) {
+				x[i] = px.longValue();
+				iv.when(!seen.add(x[i]), "duplicate X coordinates");
+			}
 		}
+		iv.validate()
+			.when(parts.length < requiredParts, requiredParts + " parts required but " + parts.length + " parts provided")
+			.validate();
 		
+		int elements = M61Part.elements(secretLength);
+		// any requiredParts parts determine the secret, so interpolate through no more
+		final byte[][] ys = new byte[requiredParts][];
+		for(int i = 0; i < requiredParts; i++)
+			ys[i] = BigIntegers.toBytes(parts[i].getPoint().getY(), elements * 8);
+		
+		final long[] w = LagrangeCache.m61(Arrays.copyOf(x, requiredParts));
+		final byte[] secret = new byte[secretLength];
+		new ParallelBytes() {
+			@Override
+			protected void run(int from, int to, Random rnd) {
+				M61Engine.join(ys, w, from, to, secret);
+			}
+		}.invoke(elements, null, pool);
 		return secret;
 	}
 	
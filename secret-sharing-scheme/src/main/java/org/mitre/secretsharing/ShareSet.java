@@ -0,0 +1,435 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mitre.secretsharing.Part.PrivateSecretPart;
+import org.mitre.secretsharing.util.BigIntegers;
+import org.mitre.secretsharing.util.Gf256;
+import org.mitre.secretsharing.util.Gf65521;
+import org.mitre.secretsharing.util.InputValidation;
+
+/**
+ * A compact, growable collection of the parts of many secrets.<p>
+ * 
+ * A {@link Part} is several objects: its {@link Part.PublicSecretPart}, {@link PrivateSecretPart},
+ * {@link BigPoint} and two {@link BigInteger}s.  A {@link ShareSet} instead keeps one header
+ * per secret, shared between secrets with the same type, length, required parts and modulus,
+ * and stores the parts in columns: an {@code int} X coordinate per part, and the Y coordinates
+ * as fixed-width bytes in one array.  {@link #getPart(int, int)} returns a flyweight {@link Part}
+ * that reads its point from the columns when asked, and {@link #join(int)} reads the columns
+ * straight into the join engines without creating any {@link Part}s.<p>
+ * 
+ * X coordinates must fit in an {@code int}, which they do for every part created by {@link Secrets}.
+ * This class is not thread-safe for concurrent {@link #add(Part...)}.
+ * @author Robin Kirkman
+ *
+ */
+public class ShareSet {
+	private static final int MULTIBYTE = 0;
+	private static final int PER_BYTE = 1;
+	private static final int GF256 = 2;
+	private static final int M61 = 3;
+	private static final int BLOCK = 4;
+	
+	/**
+	 * The headers in use, by themselves, so that equal headers are shared
+	 */
+	private Map<Header, Header> headers = new HashMap<Header, Header>();
+	/**
+	 * The header of each secret
+	 */
+	private List<Header> secretHeaders = new ArrayList<Header>();
+	/**
+	 * The index of the first part of each secret in {@link #x}, followed by the number of parts
+	 */
+	private int[] firstPart = new int[1];
+	/**
+	 * The offset of each secret's Y coordinates in {@link #y}
+	 */
+	private int[] yOffset = new int[0];
+	/**
+	 * The X coordinate of each part
+	 */
+	private int[] x = new int[0];
+	/**
+	 * The Y coordinates of every part, each {@link Header#width} bytes long
+	 */
+	private byte[] y = new byte[0];
+	/**
+	 * The number of bytes used in {@link #y}
+	 */
+	private int yLength;
+	
+	/**
+	 * Create an empty {@link ShareSet}
+	 */
+	public ShareSet() {
+	}
+	
+	/**
+	 * Add the parts of a secret.  The parts are copied into the columns, so the
+	 * argument {@link Part}s need not be kept.
+	 * @param parts The parts of one secret, which must be of the same type and agree on length,
+	 * required parts and modulus
+	 * @return The index of the secret in this {@link ShareSet}
+	 */
+	public int add(Part... parts) {
+		InputValidation iv = Part.validateConsistent(parts);
+		Header header = new Header(parts[0]);
+		BigInteger[] px = new BigInteger[parts.length];
+		for(int j = 0; j < parts.length; j++) {
+			Part part = parts[j];
+			// a compact per-byte part would pack its Y coordinates into a point and keep it, so its
+			// Y coordinates are checked by construction and it is read through values() instead
+			boolean compact = part instanceof PerBytePart && ((PerBytePart) part).isCompact();
+			px[j] = compact ? ((PerBytePart) part).x() : part.getPoint().getX();
+			iv.when(px[j].signum() <= 0 || px[j].bitLength() > 31, "X coordinate out of range");
+			if(!compact) {
+				BigInteger py = part.getPoint().getY();
+				iv.when(py.signum() < 0 || py.bitLength() > 8 * header.width, "Y coordinate out of range");
+			}
+			for(int i = 0; i < j; i++)
+				iv.when(px[j].equals(px[i]), "duplicate X coordinates");
+		}
+		iv.validate();
+		
+		Header shared = headers.get(header);
+		if(shared == null)
+			headers.put(header, shared = header);
+		int secret = secretHeaders.size();
+		int start = firstPart[secret];
+		long end = (long) yLength + (long) parts.length * shared.width;
+		InputValidation.check(end > Integer.MAX_VALUE - 8, "ShareSet is full");
+		
+		if(secret + 2 > firstPart.length)
+			firstPart = Arrays.copyOf(firstPart, 2 * firstPart.length + 1);
+		if(secret + 1 > yOffset.length)
+			yOffset = Arrays.copyOf(yOffset, 2 * yOffset.length + 1);
+		if(start + parts.length > x.length)
+			x = Arrays.copyOf(x, Math.max(2 * x.length, start + parts.length));
+		if(end > y.length)
+			y = Arrays.copyOf(y, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(2L * y.length, end)));
+		
+		for(int j = 0; j < parts.length; j++) {
+			x[start + j] = px[j].intValue();
+			int off = yLength + j * shared.width;
+			if(parts[j] instanceof PerBytePart) {
+				char[] values = ((PerBytePart) parts[j]).values();
+				for(int i = 0; i < values.length; i++) {
+					y[off + 2 * i] = (byte) (values[i] >>> 8);
+					y[off + 2 * i + 1] = (byte) values[i];
+				}
+			} else {
+				byte[] b = BigIntegers.toBytes(parts[j].getPoint().getY(), shared.width);
+				System.arraycopy(b, 0, y, off, b.length);
+			}
+		}
+		secretHeaders.add(shared);
+		yOffset[secret] = yLength;
+		firstPart[secret + 1] = start + parts.length;
+		yLength = (int) end;
+		return secret;
+	}
+	
+	/**
+	 * Return the number of secrets in this {@link ShareSet}
+	 * @return The number of secrets
+	 */
+	public int size() {
+		return secretHeaders.size();
+	}
+	
+	/**
+	 * Return the number of parts held for a secret
+	 * @param secret The index of the secret
+	 * @return The number of parts
+	 */
+	public int getPartCount(int secret) {
+		check(secret, 0);
+		return firstPart[secret + 1] - firstPart[secret];
+	}
+	
+	/**
+	 * Return the length of a secret
+	 * @param secret The index of the secret
+	 * @return The number of bytes in the secret
+	 */
+	public int getLength(int secret) {
+		check(secret, 0);
+		return secretHeaders.get(secret).length;
+	}
+	
+	/**
+	 * Return the number of parts required to reconstruct a secret
+	 * @param secret The index of the secret
+	 * @return The number of required parts
+	 */
+	public int getRequiredParts(int secret) {
+		check(secret, 0);
+		return secretHeaders.get(secret).requiredParts;
+	}
+	
+	/**
+	 * Return a view of one part of a secret.  The view holds no copy of the point,
+	 * which is read from this {@link ShareSet} each time it is asked for.
+	 * @param secret The index of the secret
+	 * @param part The index of the part within the secret
+	 * @return A {@link Part} of the same type as the one added
+	 */
+	public Part getPart(int secret, int part) {
+		check(secret, part);
+		Header h = secretHeaders.get(secret);
+		PrivateSecretPart view = new View(this, secret, part);
+		switch(h.type) {
+		case PER_BYTE:
+			return new PerBytePart(h.version, h.length, h.requiredParts, view);
+		case GF256:
+			return new Gf256Part(h.version, h.length, h.requiredParts, view);
+		case M61:
+			return new M61Part(h.version, h.length, h.requiredParts, view);
+		case BLOCK:
+			return new BlockPart(h.version, h.length, h.requiredParts, h.primeId, view);
+		default:
+			return new Part(h.version, h.length, h.requiredParts, h.modulus, view);
+		}
+	}
+	
+	/**
+	 * Return views of all the parts of a secret
+	 * @param secret The index of the secret
+	 * @return A new array of {@link Part}s
+	 * @see #getPart(int, int)
+	 */
+	public Part[] getParts(int secret) {
+		Part[] parts = new Part[getPartCount(secret)];
+		for(int j = 0; j < parts.length; j++)
+			parts[j] = getPart(secret, j);
+		return parts;
+	}
+	
+	/**
+	 * Reconstruct a secret from the parts held for it
+	 * @param secret The index of the secret
+	 * @return The secret
+	 */
+	public byte[] join(int secret) {
+		check(secret, 0);
+		Header h = secretHeaders.get(secret);
+		int first = firstPart[secret];
+		int count = firstPart[secret + 1] - first;
+		InputValidation.begin()
+			.when(count < h.requiredParts, h.requiredParts + " parts required but " + count + " parts provided")
+			.validate();
+		// the first requiredParts parts determine the secret, so interpolate through no more
+		count = h.requiredParts;
+		int[] px = Arrays.copyOfRange(x, first, first + count);
+		byte[] result = new byte[h.length];
+		switch(h.type) {
+		case PER_BYTE: {
+			checkX(px, Gf65521.P - 1);
+			char[][] ys = new char[count][h.length];
+			for(int j = 0; j < count; j++) {
+				int off = yOffset[secret] + j * h.width;
+				for(int i = 0; i < h.length; i++)
+					ys[j][i] = (char) (((0xFF & y[off + 2 * i]) << 8) | (0xFF & y[off + 2 * i + 1]));
+			}
+			PerByteEngine.join(ys, LagrangeCache.perByte(px), 0, h.length, result);
+			break;
+		}
+		case GF256:
+			checkX(px, Gf256.SIZE - 1);
+			Gf256Engine.join(columns(secret, count, h.width), LagrangeCache.gf256(px), 0, h.length, result);
+			break;
+		case M61: {
+			long[] lx = new long[count];
+			for(int j = 0; j < count; j++)
+				lx[j] = px[j];
+			M61Engine.join(columns(secret, count, h.width), LagrangeCache.m61(lx), 0, M61Part.elements(h.length), result);
+			break;
+		}
+		case BLOCK: {
+			BigInteger[] bx = new BigInteger[count];
+			for(int j = 0; j < count; j++)
+				bx[j] = BigInteger.valueOf(px[j]);
+			BigInteger[] w = LagrangeCache.block(bx, h.modulus);
+			BlockEngine.join(columns(secret, count, h.width), w, h.primeId, 0, BlockPart.blocks(h.length, h.primeId), result);
+			break;
+		}
+		default: {
+			BigInteger[] bx = new BigInteger[count];
+			BigInteger[] by = new BigInteger[count];
+			for(int j = 0; j < count; j++) {
+				bx[j] = BigInteger.valueOf(px[j]);
+				by[j] = point(secret, j).getY();
+			}
+			byte[] s = BigIntegers.weightedZero(LagrangeCache.multibyte(bx, h.modulus), by, h.modulus).toByteArray();
+			int n = Math.min(s.length, h.length);
+			System.arraycopy(s, s.length - n, result, h.length - n, n);
+		}
+		}
+		return result;
+	}
+	
+	/**
+	 * Reconstruct every secret in this {@link ShareSet}
+	 * @return The secrets, by index
+	 */
+	public byte[][] joinAll() {
+		byte[][] secrets = new byte[size()][];
+		for(int i = 0; i < secrets.length; i++)
+			secrets[i] = join(i);
+		return secrets;
+	}
+	
+	/**
+	 * Return the point of a part, read from the columns
+	 * @param secret The index of the secret
+	 * @param part The index of the part
+	 * @return A new {@link BigPoint}
+	 */
+	private BigPoint point(int secret, int part) {
+		Header h = secretHeaders.get(secret);
+		int off = yOffset[secret] + part * h.width;
+		return new BigPoint(
+				BigInteger.valueOf(x[firstPart[secret] + part]),
+				new BigInteger(1, Arrays.copyOfRange(y, off, off + h.width)));
+	}
+	
+	/**
+	 * Copy the Y coordinates of a secret's parts out of the column
+	 * @param secret The index of the secret
+	 * @param count The number of parts
+	 * @param width The width of each Y coordinate
+	 * @return The Y coordinates, one array per part
+	 */
+	private byte[][] columns(int secret, int count, int width) {
+		byte[][] ys = new byte[count][];
+		for(int j = 0; j < count; j++) {
+			int off = yOffset[secret] + j * width;
+			ys[j] = Arrays.copyOfRange(y, off, off + width);
+		}
+		return ys;
+	}
+	
+	private static void checkX(int[] x, long max) {
+		InputValidation iv = InputValidation.begin();
+		for(int xi : x)
+			iv.when(xi > max, "X coordinate out of range");
+		iv.validate();
+	}
+	
+	private void check(int secret, int part) {
+		InputValidation.check(secret < 0 || secret >= size(), "secret index out of range");
+		InputValidation.check(part < 0 || part >= firstPart[secret + 1] - firstPart[secret], "part index out of range");
+	}
+	
+	/**
+	 * The properties shared by all the parts of a secret, and the width of their Y coordinates
+	 * @author Robin Kirkman
+	 *
+	 */
+	private static final class Header {
+		private int type;
+		private int version;
+		private int length;
+		private int requiredParts;
+		private BigInteger modulus;
+		private int primeId = -1;
+		private int width;
+		
+		private Header(Part part) {
+			version = part.getVersion();
+			length = part.getLength();
+			requiredParts = part.getRequiredParts();
+			modulus = part.getModulus();
+			if(part instanceof PerBytePart) {
+				type = PER_BYTE;
+				width = 2 * length;
+			} else if(part instanceof Gf256Part) {
+				type = GF256;
+				width = length;
+			} else if(part instanceof M61Part) {
+				type = M61;
+				width = 8 * M61Part.elements(length);
+			} else if(part instanceof BlockPart) {
+				type = BLOCK;
+				primeId = ((BlockPart) part).getPrimeId();
+				width = BlockPart.blocks(length, primeId) * (BlockPart.blockBytes(primeId) + 1);
+			} else {
+				type = MULTIBYTE;
+				width = (modulus.bitLength() + 7) / 8;
+			}
+		}
+		
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(new Object[] {type, version, length, requiredParts, modulus, primeId});
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(obj == this)
+				return true;
+			if(!(obj instanceof Header))
+				return false;
+			Header h = (Header) obj;
+			return type == h.type
+				&& version == h.version
+				&& length == h.length
+				&& requiredParts == h.requiredParts
+				&& modulus.equals(h.modulus)
+				&& primeId == h.primeId;
+		}
+	}
+	
+	/**
+	 * A {@link PrivateSecretPart} that reads its point from a {@link ShareSet}
+	 * @author Robin Kirkman
+	 *
+	 */
+	private static final class View extends PrivateSecretPart {
+		private final ShareSet set;
+		private final int secret;
+		private final int part;
+		
+		private View(ShareSet set, int secret, int part) {
+			this.set = set;
+			this.secret = secret;
+			this.part = part;
+		}
+		
+		@Override
+		public BigPoint getPoint() {
+			return set.point(secret, part);
+		}
+	}
+}
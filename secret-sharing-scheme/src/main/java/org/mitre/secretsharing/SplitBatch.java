@@ -0,0 +1,213 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.mitre.secretsharing.util.InputValidation;
+
+/**
+ * The parts of a batch of secrets split together by {@link Secrets#splitBatch(java.util.List, int, int, java.util.Random)}
+ * or {@link Secrets#splitPerByteBatch(java.util.List, int, int, java.util.Random)}.<p>
+ * 
+ * Every secret in a batch is split into the same number of parts, and part {@code j} of every
+ * secret has the same X coordinate, so it belongs to the same share holder.  The Y coordinates
+ * are kept in primitive arrays, and {@link Part}s are only created when asked for.
+ * @author Robin Kirkman
+ *
+ */
+public abstract class SplitBatch {
+	/**
+	 * Create a batch of per-byte parts
+	 * @param requiredParts The number of parts required to reconstruct each secret
+	 * @param x The X coordinates of the parts
+	 * @param offsets The offset of each secret in the concatenated secrets, followed by their total length
+	 * @param ys The Y values of each part for the concatenated secrets
+	 * @return A new {@link SplitBatch}
+	 */
+	static SplitBatch perByte(int requiredParts, int[] x, int[] offsets, char[][] ys) {
+		return new PerByte(requiredParts, x, offsets, ys);
+	}
+	
+	/**
+	 * Create a batch of multibyte parts, with X coordinates {@code 1} to {@code totalParts}
+	 * @param totalParts The number of parts each secret was split into
+	 * @param requiredParts The number of parts required to reconstruct each secret
+	 * @param lengths The length of each secret
+	 * @param moduli The prime modulus of each secret
+	 * @param y The Y coordinates of each part of each secret
+	 * @return A new {@link SplitBatch}
+	 */
+	static SplitBatch multibyte(int totalParts, int requiredParts, int[] lengths, BigInteger[] moduli, BigInteger[][] y) {
+		return new Multibyte(totalParts, requiredParts, lengths, moduli, y);
+	}
+	
+	/**
+	 * The number of parts each secret was split into
+	 */
+	private int totalParts;
+	
+	/**
+	 * The number of parts required to reconstruct each secret
+	 */
+	private int requiredParts;
+	
+	private SplitBatch(int totalParts, int requiredParts) {
+		this.totalParts = totalParts;
+		this.requiredParts = requiredParts;
+	}
+	
+	/**
+	 * Return the number of secrets in the batch
+	 * @return The number of secrets
+	 */
+	public abstract int size();
+	
+	/**
+	 * Return the number of parts each secret was split into
+	 * @return The number of parts
+	 */
+	public int getTotalParts() {
+		return totalParts;
+	}
+	
+	/**
+	 * Return the number of parts required to reconstruct each secret
+	 * @return The number of required parts
+	 */
+	public int getRequiredParts() {
+		return requiredParts;
+	}
+	
+	/**
+	 * Return the length of a secret
+	 * @param secret The index of the secret in the batch
+	 * @return The number of bytes in the secret
+	 */
+	public abstract int getLength(int secret);
+	
+	/**
+	 * Create one part of a secret
+	 * @param secret The index of the secret in the batch
+	 * @param part The index of the part, which is the same for every secret held by one share holder
+	 * @return A new {@link Part}
+	 */
+	public abstract Part getPart(int secret, int part);
+	
+	/**
+	 * Create all the parts of a secret
+	 * @param secret The index of the secret in the batch
+	 * @return A new array of {@link Part}s
+	 */
+	public Part[] getParts(int secret) {
+		Part[] parts = new Part[getTotalParts()];
+		for(int j = 0; j < parts.length; j++)
+			parts[j] = getPart(secret, j);
+		return parts;
+	}
+	
+	/**
+	 * Validate the indices of a part
+	 * @param secret The index of the secret in the batch
+	 * @param part The index of the part
+	 */
+	protected void check(int secret, int part) {
+		InputValidation.check(
+			secret < 0 || secret >= size(), "secret index out of range",
+			part < 0 || part >= getTotalParts(), "part index out of range");
+	}
+	
+	/**
+	 * A batch of {@link PerBytePart}s, whose Y values are slices of one array per share holder
+	 * @author Robin Kirkman
+	 *
+	 */
+	private static class PerByte extends SplitBatch {
+		private int[] x;
+		private int[] offsets;
+		private char[][] ys;
+		
+		private PerByte(int requiredParts, int[] x, int[] offsets, char[][] ys) {
+			super(x.length, requiredParts);
+			this.x = x;
+			this.offsets = offsets;
+			this.ys = ys;
+		}
+		
+		@Override
+		public int size() {
+			return offsets.length - 1;
+		}
+		
+		@Override
+		public int getLength(int secret) {
+			check(secret, 0);
+			return offsets[secret + 1] - offsets[secret];
+		}
+		
+		@Override
+		public Part getPart(int secret, int part) {
+			check(secret, part);
+			char[] y = Arrays.copyOfRange(ys[part], offsets[secret], offsets[secret + 1]);
+			return new PerBytePart(2, y.length, getRequiredParts(), x[part], y);
+		}
+	}
+	
+	/**
+	 * A batch of multibyte {@link Part}s
+	 * @author Robin Kirkman
+	 *
+	 */
+	private static class Multibyte extends SplitBatch {
+		private int[] lengths;
+		private BigInteger[] moduli;
+		private BigInteger[][] y;
+		
+		private Multibyte(int totalParts, int requiredParts, int[] lengths, BigInteger[] moduli, BigInteger[][] y) {
+			super(totalParts, requiredParts);
+			this.lengths = lengths;
+			this.moduli = moduli;
+			this.y = y;
+		}
+		
+		@Override
+		public int size() {
+			return lengths.length;
+		}
+		
+		@Override
+		public int getLength(int secret) {
+			check(secret, 0);
+			return lengths[secret];
+		}
+		
+		@Override
+		public Part getPart(int secret, int part) {
+			check(secret, part);
+			BigPoint point = new BigPoint(BigInteger.valueOf(part + 1), y[secret][part]);
+			return new Part(lengths[secret], getRequiredParts(), moduli[secret], point);
+		}
+	}
+}
@@ -28,11 +28,23 @@ import java.math.BigInteger;
 import org.mitre.secretsharing.util.InputValidation;
 
 /**
- * A fractional term used in {@link TermPolynomial}
+ * A fractional term used in {@link TermPolynomial}.<p>
+ * 
+ * The arithmetic methods do not reduce their results to lowest terms, which needs a {@code gcd},
+ * until the denominator grows past {@link #REDUCE_BITS} bits or the value is observed by
+ * {@link #getNumerator()}, {@link #getDenominator()}, {@link #equals(Object)}, {@link #hashCode()},
+ * {@link #toString()}, {@link #isWhole()} or {@link #whole()}.  The reduced term is computed once
+ * and kept, so a {@link Term} is still immutable and thread-safe.
  * @author Robin Kirkman
  *
  */
 public final class Term implements Comparable<Term> {
+	/**
+	 * The number of bits past which the denominator of an arithmetic result is reduced
+	 * to lowest terms at once, so that unobserved intermediate values do not grow without bound
+	 */
+	public static final int REDUCE_BITS = 512;
+	
 	/**
 	 * Constant term valued zero
 	 */
@@ -43,13 +55,17 @@ public final class Term implements Comparable<Term> {
 	public static final Term ONE = new Term(BigInteger.ONE);
 	
 	/**
-	 * The numerator of the fraction
+	 * The numerator of the fraction, not necessarily in lowest terms
 	 */
-	private BigInteger numerator;
+	private final BigInteger numerator;
 	/**
-	 * The denominator of the fraction
+	 * The positive denominator of the fraction, not necessarily in lowest terms
 	 */
-	private BigInteger denominator;
+	private final BigInteger denominator;
+	/**
+	 * This term in lowest terms, which is {@code this} if it already is, or {@code null} if not yet computed
+	 */
+	private volatile Term normal;
 	
 	/**
 	 * Create a whole-number term
@@ -65,31 +81,76 @@ public final class Term implements Comparable<Term> {
 	 * @param denominator The denominator
 	 */
 	public Term(BigInteger numerator, BigInteger denominator) {
-		InputValidation.begin()
-			.when(numerator == null, "numerator is null")
-			.when(denominator == null, "denominator is null")
-			.when(BigInteger.ZERO.equals(denominator), "denominator is 0")
-			.validate();
+		this(
+			numerator != null && denominator != null && denominator.signum() < 0 ? numerator.negate() : numerator,
+			denominator != null ? denominator.abs() : null,
+			check(numerator, denominator));
+	}
+	
+	/**
+	 * Create a new term from a positive denominator
+	 * @param numerator The numerator
+	 * @param denominator The positive denominator
+	 * @param normal Whether the fraction is known to be in lowest terms
+	 */
+	private Term(BigInteger numerator, BigInteger denominator, boolean normal) {
 		BigInteger n = numerator;
 		BigInteger d = denominator;
-		if(n.equals(BigInteger.ZERO)) {
-			d = BigInteger.ONE;
-		} else {
-			if(d.compareTo(BigInteger.ZERO) < 0) {
-				n = n.negate();
-				d = d.negate();
+		if(!normal) {
+			if(n.signum() == 0) {
+				d = BigInteger.ONE;
+				normal = true;
+			} else if(d.bitLength() == 1) {
+				// the denominator is one
+				normal = true;
+			} else if(d.bitLength() > REDUCE_BITS) {
+				BigInteger gcd = n.gcd(d);
+				n = n.divide(gcd);
+				d = d.divide(gcd);
+				normal = true;
 			}
-			BigInteger gcd = n.gcd(d);
-			n = n.divide(gcd);
-			d = d.divide(gcd);
 		}
 		this.numerator = n;
 		this.denominator = d;
+		if(normal)
+			this.normal = this;
+	}
+	
+	/**
+	 * Validate the arguments of {@link #Term(BigInteger, BigInteger)}
+	 * @param numerator The numerator
+	 * @param denominator The denominator
+	 * @return {@code false}, since the fraction is not known to be in lowest terms
+	 */
+	private static boolean check(BigInteger numerator, BigInteger denominator) {
+		InputValidation.check(
+			numerator == null, "numerator is null",
+			denominator == null, "denominator is null",
+			BigInteger.ZERO.equals(denominator), "denominator is 0");
+		return false;
+	}
+	
+	/**
+	 * Return this term in lowest terms, computing it the first time
+	 * @return A {@link Term} with the same value in lowest terms
+	 */
+	private Term normal() {
+		Term t = normal;
+		if(t == null) {
+			BigInteger gcd = numerator.gcd(denominator);
+			if(gcd.equals(BigInteger.ONE))
+				t = this;
+			else
+				t = new Term(numerator.divide(gcd), denominator.divide(gcd), true);
+			normal = t;
+		}
+		return t;
 	}
 	
 	@Override
 	public int hashCode() {
-		return numerator.hashCode() * denominator.hashCode();
+		Term t = normal();
+		return t.numerator.hashCode() * t.denominator.hashCode();
 	}
 	
 	@Override
@@ -97,39 +158,42 @@ public final class Term implements Comparable<Term> {
 		if(obj == this)
 			return true;
 		if(obj instanceof Term) {
-			Term t = (Term) obj;
-			return numerator.equals(t.numerator) && denominator.equals(t.denominator);
+			Term t = normal();
+			Term o = ((Term) obj).normal();
+			return t.numerator.equals(o.numerator) && t.denominator.equals(o.denominator);
 		}
 		return false;
 	}
 	
 	@Override
 	public int compareTo(Term o) {
-		InputValidation.begin().when(o == null, "argument is null").validate();
-		return subtract(o).numerator.compareTo(BigInteger.ZERO);
+		InputValidation.check(o == null, "argument is null");
+		// the denominators are positive
+		return numerator.multiply(o.denominator).compareTo(o.numerator.multiply(denominator));
 	}
 	
 	/**
-	 * Return the numerator
+	 * Return the numerator, in lowest terms
 	 * @return The numerator
 	 */
 	public BigInteger getNumerator() {
-		return numerator;
+		return normal().numerator;
 	}
 
 	/**
-	 * Return the denominator
+	 * Return the denominator, in lowest terms
 	 * @return The denominator
 	 */
 	public BigInteger getDenominator() {
-		return denominator;
+		return normal().denominator;
 	}
 	
 	@Override
 	public String toString() {
-		if(denominator.equals(BigInteger.ONE))
-			return numerator.toString();
-		return "(" + numerator + "/" + denominator + ")";
+		Term t = normal();
+		if(t.denominator.equals(BigInteger.ONE))
+			return t.numerator.toString();
+		return "(" + t.numerator + "/" + t.denominator + ")";
 	}
 	
 	/**
@@ -138,10 +202,12 @@ public final class Term implements Comparable<Term> {
 	 * @return A new Term
 	 */
 	public Term add(Term other) {
-		InputValidation.begin().when(other == null, "argument is null").validate();
+		InputValidation.check(other == null, "argument is null");
+		if(denominator.equals(other.denominator))
+			return new Term(numerator.add(other.numerator), denominator, false);
 		BigInteger n = numerator.multiply(other.denominator).add(other.numerator.multiply(denominator));
 		BigInteger d = denominator.multiply(other.denominator);
-		return new Term(n, d);
+		return new Term(n, d, false);
 	}
 	
 	/**
@@ -150,8 +216,12 @@ public final class Term implements Comparable<Term> {
 	 * @return A new Term
 	 */
 	public Term subtract(Term other) {
-		InputValidation.begin().when(other == null, "argument is null").validate();
-		return add(new Term(other.numerator.negate(), other.denominator));
+		InputValidation.check(other == null, "argument is null");
+		if(denominator.equals(other.denominator))
+			return new Term(numerator.subtract(other.numerator), denominator, false);
+		BigInteger n = numerator.multiply(other.denominator).subtract(other.numerator.multiply(denominator));
+		BigInteger d = denominator.multiply(other.denominator);
+		return new Term(n, d, false);
 	}
 	
 	/**
@@ -160,10 +230,10 @@ public final class Term implements Comparable<Term> {
 	 * @return A new Term
 	 */
 	public Term multiply(Term other) {
-		InputValidation.begin().when(other == null, "argument is null").validate();
+		InputValidation.check(other == null, "argument is null");
 		BigInteger n = numerator.multiply(other.numerator);
 		BigInteger d = denominator.multiply(other.denominator);
-		return new Term(n, d);
+		return new Term(n, d, false);
 	}
 	
 	/**
@@ -172,10 +242,10 @@ public final class Term implements Comparable<Term> {
 	 * @return A new Term
 	 */
 	public Term multiply(BigInteger val) {
-		InputValidation.begin().when(val == null, "argument is null").validate();
+		InputValidation.check(val == null, "argument is null");
 		BigInteger n = numerator.multiply(val);
 		BigInteger d = denominator;
-		return new Term(n, d);
+		return new Term(n, d, false);
 	}
 	
 	/**
@@ -184,9 +254,10 @@ public final class Term implements Comparable<Term> {
 	 * @return A new {@link Term}
 	 */
 	public Term mod(BigInteger m) {
-		InputValidation.begin().when(m == null, "argument is null").validate();
+		InputValidation.check(m == null, "argument is null");
 		m = m.multiply(denominator);
-		return new Term(numerator.mod(m), denominator);
+		// subtracting a multiple of the denominator keeps a fraction in lowest terms
+		return new Term(numerator.mod(m), denominator, normal == this);
 	}
 	
 	/**
@@ -194,7 +265,7 @@ public final class Term implements Comparable<Term> {
 	 * @return {@code true} for a whole number, {@code false} for a fraction
 	 */
 	public boolean isWhole() {
-		return denominator.equals(BigInteger.ONE);
+		return normal().denominator.equals(BigInteger.ONE);
 	}
 	
 	/**
@@ -204,8 +275,9 @@ public final class Term implements Comparable<Term> {
 	 * @throws ArithmeticException If this term is not a whole number.
 	 */
 	public BigInteger whole() throws ArithmeticException {
-		if(!denominator.equals(BigInteger.ONE))
+		Term t = normal();
+		if(!t.denominator.equals(BigInteger.ONE))
 			throw new ArithmeticException("Cannot get whole value of fraction");
-		return numerator;
+		return t.numerator;
 	}
 }
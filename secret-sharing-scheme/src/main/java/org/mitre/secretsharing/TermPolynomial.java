@@ -25,7 +25,9 @@ package org.mitre.secretsharing;
 
 import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 
 import org.mitre.secretsharing.util.InputValidation;
 
@@ -45,29 +47,64 @@ public class TermPolynomial {
 	public static final TermPolynomial ONE = new TermPolynomial(Term.ONE);
 	
 	/**
-	 * Compute a Lagrange polynomial from an array of points, with an (optional) specified modulus
+	 * Compute a Lagrange polynomial from an array of points, with an (optional) specified modulus.
+	 * When there is a modulus and the X coordinates are distinct modulo it, the polynomial
+	 * is computed by {@link ModPolynomial#lagrangePolynomial(BigPoint[], BigInteger)}.
 	 * @param pts Array of points found on the interpolating Lagrange polynomial
 	 * @param modulus The modulus of the polynomial
 	 * @return A new {@link TermPolynomial}
 	 */
 	public static TermPolynomial lagrangePolynomial(BigPoint[] pts, BigInteger modulus) {
-		InputValidation.begin()
-			.when(pts == null, "pts is null")
-			.when(modulus != null && modulus.compareTo(BigInteger.ONE) <= 0, "modulus not greater than one")
-			.validate();
+		InputValidation.check(
+			pts == null, "pts is null",
+			modulus != null && modulus.compareTo(BigInteger.ONE) <= 0, "modulus not greater than one");
+		if(modulus != null && distinctModulo(pts, modulus))
+			return ModPolynomial.lagrangePolynomial(pts, modulus).toTermPolynomial();
 		BigInteger[] px = new BigInteger[pts.length];
 		BigInteger[] py = new BigInteger[pts.length];
 		for(int i = 0; i < pts.length; i++) {
 			px[i] = pts[i].getX();
 			py[i] = pts[i].getY();
 		}
-		TermPolynomial poly = TermPolynomial.ZERO;
+		TermPolynomialBuilder poly = new TermPolynomialBuilder(modulus).add(Term.ZERO, 0);
+		TermPolynomialBuilder sub = new TermPolynomialBuilder();
 		for(int j = 0; j < px.length; j++)
-			poly = poly.add(lagrangeSubPolynomial(px, py, j));
-		Term[] terms = poly.getTerms();
-		for(int i = 0; i < terms.length; i++)
-			terms[i] = lagrangeTermModulo(terms[i],modulus);
-		return new TermPolynomial(terms, modulus);
+			poly.add(lagrangeSubPolynomial(px, py, j, sub));
+		if(modulus != null) {
+			for(int i = 0; i < poly.length(); i++)
+				poly.set(lagrangeTermModulo(poly.getTerm(i), modulus), i);
+		}
+		return poly.build();
+	}
+	
+	/**
+	 * Compute the interpolating polynomial modulo a prime from an array of points, in
+	 * {@code O(k^2)} modular multiplications for {@code k} points rather than the {@code O(k^3)}
+	 * rational arithmetic of {@link #lagrangePolynomial(BigPoint[], BigInteger)} without a modulus.
+	 * @param pts Array of points found on the interpolating polynomial
+	 * @param modulus The prime modulus of the polynomial
+	 * @return A new {@link TermPolynomial} of whole-number terms
+	 * @throws ArithmeticException If the X coordinates are not distinct modulo {@code modulus}
+	 * @see ModPolynomial#newtonPolynomial(BigPoint[], BigInteger)
+	 */
+	public static TermPolynomial newtonPolynomial(BigPoint[] pts, BigInteger modulus) {
+		return ModPolynomial.newtonPolynomial(pts, modulus).toTermPolynomial();
+	}
+	
+	/**
+	 * Returns whether the X coordinates of the argument points are distinct modulo {@code modulus},
+	 * which is required for interpolating them with {@link ModPolynomial}
+	 * @param pts The points
+	 * @param modulus The modulus
+	 * @return {@code true} if no two X coordinates are congruent
+	 */
+	private static boolean distinctModulo(BigPoint[] pts, BigInteger modulus) {
+		Set<BigInteger> xs = new HashSet<BigInteger>();
+		for(BigPoint pt : pts) {
+			if(!xs.add(pt.getX().mod(modulus)))
+				return false;
+		}
+		return true;
 	}
 	
 	/**
@@ -75,17 +112,17 @@ public class TermPolynomial {
 	 * @param px The X values of the points
 	 * @param py The Y values of the points
 	 * @param j The index in the array of points
-	 * @return A new {@link TermPolynomial} specific to this index
+	 * @param result The builder to compute the sub-polynomial in
+	 * @return {@code result}, holding the sub-polynomial specific to this index
 	 */
-	private static TermPolynomial lagrangeSubPolynomial(BigInteger[] px, BigInteger[] py, int j) {
-		TermPolynomial result = TermPolynomial.ONE;
+	private static TermPolynomialBuilder lagrangeSubPolynomial(BigInteger[] px, BigInteger[] py, int j, TermPolynomialBuilder result) {
+		result.clear().add(Term.ONE, 0);
 		for(int i = 0; i < px.length; i++) {
 			if(i == j)
 				continue;
 			Term t1 = new Term(BigInteger.ONE, px[j].subtract(px[i]));
 			Term t0 = new Term(px[i].negate(), px[j].subtract(px[i]));
-			TermPolynomial t = new TermPolynomial(new Term[] {t0, t1});
-			result = result.multiply(t);
+			result.multiply(wrap(new Term[] {t0, t1}, null));
 		}
 		return result.multiply(py[j]);
 	}
@@ -107,7 +144,8 @@ public class TermPolynomial {
 	}
 	
 	/**
-	 * Create a random secret-generating polynomial for the argument secret
+	 * Create a random secret-generating polynomial for the argument secret,
+	 * using {@link ModPolynomial#secretPolynomial(BigInteger, int, int, Random)}
 	 * @param secret The secret, as a Y coordinate on a polynomial
 	 * @param secretBits Number of bits in the secret
 	 * @param powx The power of the polynomial, one less than the number of required secret parts
@@ -115,22 +153,24 @@ public class TermPolynomial {
 	 * @return A new {@link TermPolynomial}
 	 */
 	public static TermPolynomial secretPolynomial(BigInteger secret, int secretBits, int powx, Random rnd) {
-		InputValidation.begin()
-			.when(secret == null, "secret is null")
-			.when(secretBits < 0, "secretBits is less than zero")
-			.when(rnd == null, "rnd is null")
-			.validate();
-		BigInteger prime = BigInteger.probablePrime(secretBits+1, rnd);
-		while(prime.compareTo(secret) < 0)
-			prime = BigInteger.probablePrime(secretBits+1, rnd);
-		TermPolynomial poly = TermPolynomial.ONE.multiply(secret);
-		for(int i = 1; i <= powx; i++) {
-			BigInteger a = new BigInteger(secretBits, rnd);
-			while(a.compareTo(prime) > 0)
-				a = new BigInteger(secretBits, rnd);
-			poly = poly.add(TermPolynomial.ONE.multiply(a).powX(i));
-		}
-		return new TermPolynomial(poly.getTerms(), prime);
+		InputValidation.check(
+			secret == null, "secret is null",
+			secretBits < 0, "secretBits is less than zero",
+			rnd == null, "rnd is null");
+		return ModPolynomial.secretPolynomial(secret, secretBits, powx, rnd).toTermPolynomial();
+	}
+	
+	/**
+	 * Create a {@link TermPolynomial} that takes ownership of an array of terms, without copying it
+	 * @param terms The terms, which must not be changed afterward and must already be reduced by {@code modulus}
+	 * @param modulus The modulus, or {@code null} for no modulus
+	 * @return A new {@link TermPolynomial}
+	 */
+	static TermPolynomial wrap(Term[] terms, BigInteger modulus) {
+		TermPolynomial p = new TermPolynomial();
+		p.terms = terms;
+		p.modulus = modulus;
+		return p;
 	}
 	
 	/**
@@ -159,7 +199,10 @@ public class TermPolynomial {
 	 * @param other The {@link TermPolynomial} to copy
 	 */
 	public TermPolynomial(TermPolynomial other) {
-		this(other.getTerms(), other.getModulus());
+		InputValidation.check(other == null, "argument is null");
+		// both are immutable, so they can share their terms
+		this.terms = other.terms;
+		this.modulus = other.modulus;
 	}
 	
 	/**
@@ -170,10 +213,9 @@ public class TermPolynomial {
 	 * @param modulus The modulus, or {@code null} for no modulus
 	 */
 	public TermPolynomial(Term[] terms, BigInteger modulus) {
-		InputValidation.begin()
-			.when(terms == null, "terms is null")
-			.when(modulus != null && modulus.compareTo(BigInteger.ONE) <= 0, "modulus not greater than one")
-			.validate();
+		InputValidation.check(
+			terms == null, "terms is null",
+			modulus != null && modulus.compareTo(BigInteger.ONE) <= 0, "modulus not greater than one");
 		this.terms = Arrays.copyOf(terms, terms.length);
 		this.modulus = modulus;
 		if(this.modulus != null) {
@@ -182,6 +224,12 @@ public class TermPolynomial {
 		}
 	}
 	
+	/**
+	 * Create an uninitialized {@link TermPolynomial} for {@link #wrap(Term[], BigInteger)} to fill in
+	 */
+	private TermPolynomial() {
+	}
+	
 	/**
 	 * Create a Lagrange interpolating polynomial for the argument points
 	 * and optional modulus
@@ -205,7 +253,6 @@ public class TermPolynomial {
 	
 	@Override
 	public String toString() {
-		Term[] terms = getTerms();
 		if(terms.length == 0)
 			return "0";
 		StringBuilder sb = new StringBuilder(terms[0].toString());
@@ -223,7 +270,7 @@ public class TermPolynomial {
 		if(obj instanceof TermPolynomial) {
 			TermPolynomial p = (TermPolynomial) obj;
 			return 
-					Arrays.equals(getTerms(), p.getTerms()) 
+					Arrays.equals(terms, p.terms) 
 					&& (getModulus() == null ? p.getModulus() == null : getModulus().equals(p.getModulus()));
 		}
 		return false;
@@ -231,7 +278,7 @@ public class TermPolynomial {
 	
 	@Override
 	public int hashCode() {
-		return Arrays.hashCode(getTerms()) + (getModulus() == null ? 0 : getModulus().hashCode());
+		return Arrays.hashCode(terms) + (getModulus() == null ? 0 : getModulus().hashCode());
 	}
 	
 	/**
@@ -243,6 +290,15 @@ public class TermPolynomial {
 		return Arrays.copyOf(terms, terms.length);
 	}
 	
+	/**
+	 * Return the terms in this polynomial without copying them, for
+	 * callers in this package that do not change them
+	 * @return The terms
+	 */
+	Term[] terms() {
+		return terms;
+	}
+	
 	/**
 	 * Return the modulus.  May be null.
 	 * @return The modulus, or {@code null} for no modulus
@@ -257,9 +313,8 @@ public class TermPolynomial {
 	 * @return The Y coordinate
 	 */
 	public Term y(BigInteger x) {
-		InputValidation.begin().when(x == null, "argument is null").validate();
+		InputValidation.check(x == null, "argument is null");
 		Term result = Term.ZERO;
-		Term[] terms = getTerms();
 		BigInteger xp = BigInteger.ONE;
 		for(int i = 0; i < terms.length; i++) {
 			result = result.add(terms[i].multiply(xp));
@@ -276,16 +331,15 @@ public class TermPolynomial {
 	 * @return A new {@link TermPolynomial}
 	 */
 	public TermPolynomial add(TermPolynomial other) {
-		InputValidation.begin().when(other == null, "argument is null").validate();
-		Term[] terms = getTerms();
-		Term[] otherTerms = other.getTerms();
+		InputValidation.check(other == null, "argument is null");
+		Term[] otherTerms = other.terms;
 		Term[] t = new Term[Math.max(terms.length, otherTerms.length)];
 		for(int i = 0; i < t.length; i++) {
 			Term lhs = (i < terms.length) ? terms[i] : Term.ZERO;
 			Term rhs = (i < otherTerms.length) ? otherTerms[i] : Term.ZERO;
 			t[i] = lhs.add(rhs);
 		}
-		return new TermPolynomial(t);
+		return wrap(t, null);
 	}
 	
 	/**
@@ -295,12 +349,11 @@ public class TermPolynomial {
 	 * @return A new {@link TermPolynomial}
 	 */
 	public TermPolynomial powX(int powx) {
-		InputValidation.begin().when(powx < 0, "powx is less than 0").validate();
-		Term[] terms = getTerms();
+		InputValidation.check(powx < 0, "powx is less than 0");
 		Term[] t = new Term[terms.length + powx];
 		Arrays.fill(t, Term.ZERO);
 		System.arraycopy(terms, 0, t, powx, terms.length);
-		return new TermPolynomial(t);
+		return wrap(t, null);
 	}
 	
 	/**
@@ -311,14 +364,16 @@ public class TermPolynomial {
 	 * @return A new {@link TermPolynomial}
 	 */
 	public TermPolynomial multiply(Term term, int powx) {
-		InputValidation.begin()
-			.when(term == null, "term is null")
-			.when(powx < 0, "powx is less than 0")
-			.validate();
-		Term[] t = new Term[getTerms().length + powx];
-		for(int i = 0; i < t.length; i++)
-			t[i] = (i < powx ? Term.ZERO : getTerms()[i - powx].multiply(term));
-		return new TermPolynomial(t, modulus);
+		InputValidation.check(
+			term == null, "term is null",
+			powx < 0, "powx is less than 0");
+		Term[] t = new Term[terms.length + powx];
+		for(int i = 0; i < t.length; i++) {
+			t[i] = (i < powx ? Term.ZERO : terms[i - powx].multiply(term));
+			if(modulus != null)
+				t[i] = t[i].mod(modulus);
+		}
+		return wrap(t, modulus);
 	}
 	
 	/**
@@ -328,15 +383,12 @@ public class TermPolynomial {
 	 * @return A new {@link TermPolynomial}
 	 */
 	public TermPolynomial multiply(TermPolynomial other) {
-		InputValidation.begin().when(other == null, "argument is null").validate();
-		TermPolynomial result = TermPolynomial.ZERO;
-		Term[] terms = getTerms();
-		
-		for(int i = 0; i < terms.length; i++) {
-			result = result.add(other.multiply(terms[i], i));
-		}
-		
-		return result;
+		InputValidation.check(other == null, "argument is null");
+		TermPolynomialBuilder result = new TermPolynomialBuilder().add(this).multiply(other);
+		// the product has at least one term, as the sum of partial products starting from ZERO did
+		if(result.length() == 0)
+			result.add(Term.ZERO, 0);
+		return result.build();
 	}
 	
 	/**
@@ -346,31 +398,56 @@ public class TermPolynomial {
 	 * @return A new {@link TermPolynomial}
 	 */
 	public TermPolynomial multiply(BigInteger val) {
-		InputValidation.begin().when(val == null, "argument is null").validate();
+		InputValidation.check(val == null, "argument is null");
 		return multiply(new Term(val), 0);
 	}
 
+	/**
+	 * Return this polynomial as a {@link ModPolynomial}, if it has a modulus
+	 * and all its terms are whole numbers
+	 * @return A new {@link ModPolynomial}, or {@code null}
+	 */
+	private ModPolynomial toModPolynomial() {
+		if(modulus == null)
+			return null;
+		BigInteger[] c = new BigInteger[terms.length];
+		for(int i = 0; i < c.length; i++) {
+			if(!terms[i].isWhole())
+				return null;
+			c[i] = terms[i].getNumerator();
+		}
+		return new ModPolynomial(c, modulus);
+	}
+	
 	/**
 	 * Return a single point on this polynomial, as a {@link BigPoint}
 	 * @param x The X coordinate of the point
 	 * @return The point
 	 */
 	public BigPoint p(BigInteger x) {
-		InputValidation.begin().when(x == null, "argument is null").validate();
+		InputValidation.check(x == null, "argument is null");
+		ModPolynomial mp = toModPolynomial();
+		if(mp != null)
+			return mp.p(x);
 		return new BigPoint(x, y(x).whole());
 	}
 	
 	/**
 	 * Return an array of points on this polynomial for
-	 * the argument array of X values, as {@link BigPoint}s
+	 * the argument array of X values, as {@link BigPoint}s.
+	 * When this polynomial has a modulus and whole-number terms, the points
+	 * are computed by {@link ModPolynomial#p(BigInteger[])}.
 	 * @param x The X coordinates of the points
 	 * @return An array of points
 	 */
 	public BigPoint[] p(BigInteger[] x) {
-		InputValidation.begin().when(x == null, "argument is null").validate();
+		InputValidation.check(x == null, "argument is null");
+		ModPolynomial mp = toModPolynomial();
+		if(mp != null)
+			return mp.p(x);
 		BigPoint[] pts = new BigPoint[x.length];
 		for(int i = 0; i < x.length; i++)
-			pts[i] = p(x[i]);
+			pts[i] = new BigPoint(x[i], y(x[i]).whole());
 		return pts;
 	}
 }
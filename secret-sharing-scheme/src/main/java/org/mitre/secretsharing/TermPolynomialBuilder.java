@@ -0,0 +1,291 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.mitre.secretsharing.util.InputValidation;
+
+/**
+ * A mutable polynomial of {@link Term}s, for accumulating a {@link TermPolynomial}
+ * without creating a new immutable polynomial for every intermediate sum and product.
+ * The methods change this builder in place and return it for method chaining, and
+ * {@link #build()} creates the {@link TermPolynomial} at the end.<p>
+ * 
+ * If the builder has a modulus, terms are reduced by it only by {@link #reduce()}
+ * and {@link #build()}.
+ * @author Robin Kirkman
+ *
+ */
+public class TermPolynomialBuilder {
+	/**
+	 * The terms, of which the first {@link #length} are in use.
+	 * The ith element is multiplied by x^i.
+	 */
+	private Term[] terms;
+	/**
+	 * The number of terms in use
+	 */
+	private int length;
+	/**
+	 * The modulus, or {@code null} for no modulus
+	 */
+	private BigInteger modulus;
+	
+	/**
+	 * Create an empty {@link TermPolynomialBuilder} with no modulus
+	 */
+	public TermPolynomialBuilder() {
+		this((BigInteger) null);
+	}
+	
+	/**
+	 * Create an empty {@link TermPolynomialBuilder}
+	 * @param modulus The modulus, or {@code null} for no modulus
+	 */
+	public TermPolynomialBuilder(BigInteger modulus) {
+		InputValidation.check(modulus != null && modulus.compareTo(BigInteger.ONE) <= 0, "modulus not greater than one");
+		this.terms = new Term[4];
+		this.modulus = modulus;
+	}
+	
+	/**
+	 * Create a {@link TermPolynomialBuilder} with the terms and modulus of a {@link TermPolynomial}
+	 * @param p The polynomial to start from
+	 */
+	public TermPolynomialBuilder(TermPolynomial p) {
+		InputValidation.check(p == null, "argument is null");
+		Term[] t = p.terms();
+		this.terms = Arrays.copyOf(t, Math.max(4, t.length));
+		this.length = t.length;
+		this.modulus = p.getModulus();
+	}
+	
+	/**
+	 * Return the number of terms, one more than the highest power of X
+	 * @return The number of terms
+	 */
+	public int length() {
+		return length;
+	}
+	
+	/**
+	 * Return the coefficient of a power of X
+	 * @param powx The power of X
+	 * @return The term, which is {@link Term#ZERO} past the end of the polynomial
+	 */
+	public Term getTerm(int powx) {
+		InputValidation.check(powx < 0, "powx is less than 0");
+		return powx < length ? terms[powx] : Term.ZERO;
+	}
+	
+	/**
+	 * Return the modulus.  May be null.
+	 * @return The modulus, or {@code null} for no modulus
+	 */
+	public BigInteger getModulus() {
+		return modulus;
+	}
+	
+	/**
+	 * Remove every term, keeping the modulus
+	 * @return This builder
+	 */
+	public TermPolynomialBuilder clear() {
+		Arrays.fill(terms, 0, length, null);
+		length = 0;
+		return this;
+	}
+	
+	/**
+	 * Replace the coefficient of a power of X
+	 * @param term The new coefficient
+	 * @param powx The power of X
+	 * @return This builder
+	 */
+	public TermPolynomialBuilder set(Term term, int powx) {
+		InputValidation.check(
+			term == null, "term is null",
+			powx < 0, "powx is less than 0");
+		grow(powx + 1);
+		terms[powx] = term;
+		return this;
+	}
+	
+	/**
+	 * Add a term times a power of X
+	 * @param term The coefficient to add
+	 * @param powx The power of X
+	 * @return This builder
+	 */
+	public TermPolynomialBuilder add(Term term, int powx) {
+		InputValidation.check(
+			term == null, "term is null",
+			powx < 0, "powx is less than 0");
+		grow(powx + 1);
+		terms[powx] = terms[powx].add(term);
+		return this;
+	}
+	
+	/**
+	 * Add a polynomial
+	 * @param other The {@link TermPolynomial} to add
+	 * @return This builder
+	 */
+	public TermPolynomialBuilder add(TermPolynomial other) {
+		InputValidation.check(other == null, "argument is null");
+		return add(other.terms(), other.terms().length);
+	}
+	
+	/**
+	 * Add the current value of another builder
+	 * @param other The {@link TermPolynomialBuilder} to add
+	 * @return This builder
+	 */
+	public TermPolynomialBuilder add(TermPolynomialBuilder other) {
+		InputValidation.check(other == null, "argument is null");
+		return add(other.terms, other.length);
+	}
+	
+	private TermPolynomialBuilder add(Term[] t, int n) {
+		grow(n);
+		for(int i = 0; i < n; i++)
+			terms[i] = terms[i].add(t[i]);
+		return this;
+	}
+	
+	/**
+	 * Multiply by a term
+	 * @param term The term to multiply by
+	 * @return This builder
+	 */
+	public TermPolynomialBuilder multiply(Term term) {
+		return multiply(term, 0);
+	}
+	
+	/**
+	 * Multiply by a term and a power of X
+	 * @param term The coefficient of the multiplicand
+	 * @param powx The power of X of the multiplicand
+	 * @return This builder
+	 */
+	public TermPolynomialBuilder multiply(Term term, int powx) {
+		InputValidation.check(
+			term == null, "term is null",
+			powx < 0, "powx is less than 0");
+		int n = length;
+		grow(n + powx);
+		for(int i = n - 1; i >= 0; i--)
+			terms[i + powx] = terms[i].multiply(term);
+		for(int i = 0; i < powx && i < n; i++)
+			terms[i] = Term.ZERO;
+		return this;
+	}
+	
+	/**
+	 * Multiply by a whole number
+	 * @param val The number to multiply by
+	 * @return This builder
+	 */
+	public TermPolynomialBuilder multiply(BigInteger val) {
+		InputValidation.check(val == null, "argument is null");
+		for(int i = 0; i < length; i++)
+			terms[i] = terms[i].multiply(val);
+		return this;
+	}
+	
+	/**
+	 * Multiply by a polynomial.  If {@code other} has a modulus, each product of
+	 * two terms is reduced by it, as {@link TermPolynomial#multiply(Term, int)} does.
+	 * The product of {@code n} and {@code m} terms has {@code n + m - 1} terms.
+	 * @param other The {@link TermPolynomial} to multiply by
+	 * @return This builder
+	 */
+	public TermPolynomialBuilder multiply(TermPolynomial other) {
+		InputValidation.check(other == null, "argument is null");
+		Term[] b = other.terms();
+		BigInteger m = other.getModulus();
+		int n = length;
+		if(n == 0)
+			return this;
+		int product = n + b.length - 1;
+		grow(product);
+		// from the top down, so that every term read has not been overwritten yet
+		for(int i = product - 1; i >= 0; i--) {
+			Term s = Term.ZERO;
+			for(int j = Math.max(0, i - n + 1); j <= i && j < b.length; j++) {
+				Term t = terms[i - j].multiply(b[j]);
+				s = s.add(m == null ? t : t.mod(m));
+			}
+			terms[i] = s;
+		}
+		if(product < n)
+			Arrays.fill(terms, product, n, null);
+		length = product;
+		return this;
+	}
+	
+	/**
+	 * Reduce every term by the modulus, if there is one
+	 * @return This builder
+	 */
+	public TermPolynomialBuilder reduce() {
+		if(modulus != null) {
+			for(int i = 0; i < length; i++)
+				terms[i] = terms[i].mod(modulus);
+		}
+		return this;
+	}
+	
+	/**
+	 * Create a {@link TermPolynomial} of the current terms, reduced by the modulus if there is one.
+	 * This builder may be used again afterward.
+	 * @return A new {@link TermPolynomial}
+	 */
+	public TermPolynomial build() {
+		reduce();
+		return TermPolynomial.wrap(Arrays.copyOf(terms, length), modulus);
+	}
+	
+	@Override
+	public String toString() {
+		// the public constructor reduces a copy, leaving this builder's terms as they are
+		return new TermPolynomial(Arrays.copyOf(terms, length), modulus).toString();
+	}
+	
+	/**
+	 * Extend the polynomial with zero terms to at least a number of terms
+	 * @param n The number of terms
+	 */
+	private void grow(int n) {
+		if(n <= length)
+			return;
+		if(n > terms.length)
+			terms = Arrays.copyOf(terms, Math.max(n, 2 * terms.length));
+		Arrays.fill(terms, length, n, Term.ZERO);
+		length = n;
+	}
+}
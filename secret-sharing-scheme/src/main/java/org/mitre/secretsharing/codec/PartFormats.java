@@ -28,6 +28,9 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.mitre.secretsharing.BigPoint;
+import org.mitre.secretsharing.BlockPart;
+import org.mitre.secretsharing.Gf256Part;
+import org.mitre.secretsharing.M61Part;
 import org.mitre.secretsharing.Part;
 import org.mitre.secretsharing.PerBytePart;
 import org.mitre.secretsharing.util.BytesReadable;
@@ -53,6 +56,40 @@ public abstract class PartFormats {
 		return bytesFormat(BytesFormats.detectVersion(data)).parse(data);
 	}
 	
+	/**
+	 * Return the oldest string format that can represent a part, so that parts of the
+	 * older types stay readable by readers that predate the newer types
+	 * @param part The part to be formatted
+	 * @return The oldest {@link PartFormat} that supports the part's type
+	 */
+	public static PartFormat<String> stringFormat(Part part) {
+		InputValidation.begin().when(part == null, "part is null").validate();
+		if(part instanceof M61Part)
+			return StringFormats.VERSION_6;
+		if(part instanceof BlockPart)
+			return StringFormats.VERSION_5;
+		if(part instanceof Gf256Part)
+			return StringFormats.VERSION_4;
+		return StringFormats.VERSION_3;
+	}
+	
+	/**
+	 * Return the oldest bytes format that can represent a part, so that parts of the
+	 * older types stay readable by readers that predate the newer types
+	 * @param part The part to be formatted
+	 * @return The oldest {@link PartFormat} that supports the part's type
+	 */
+	public static PartFormat<byte[]> bytesFormat(Part part) {
+		InputValidation.begin().when(part == null, "part is null").validate();
+		if(part instanceof M61Part)
+			return BytesFormats.VERSION_5;
+		if(part instanceof BlockPart)
+			return BytesFormats.VERSION_4;
+		if(part instanceof Gf256Part)
+			return BytesFormats.VERSION_3;
+		return BytesFormats.VERSION_2;
+	}
+	
 	public static PartFormat<String> currentStringFormat() {
 		StringFormats[] fmt = StringFormats.values();
 		return fmt[fmt.length-1];
@@ -74,7 +111,12 @@ public abstract class PartFormats {
 			@Override
 			@SuppressWarnings("deprecation")
 			public String format(Part part) {
-				InputValidation.begin().when(part == null, "part is null").validate();
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof Gf256Part, "gf256 parts not supported by " + this)
+					.when(part instanceof BlockPart, "block parts not supported by " + this)
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
 				StringBuilder sb = new StringBuilder();
 				BytesWritable w = new BytesWritable();
 				
@@ -135,7 +177,12 @@ public abstract class PartFormats {
 			@Override
 			@SuppressWarnings("deprecation")
 			public String format(Part part) {
-				InputValidation.begin().when(part == null, "part is null").validate();
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof Gf256Part, "gf256 parts not supported by " + this)
+					.when(part instanceof BlockPart, "block parts not supported by " + this)
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
 				StringBuilder sb = new StringBuilder();
 				BytesWritable w = new BytesWritable();
 				
@@ -201,7 +248,12 @@ public abstract class PartFormats {
 			@Override
 			@SuppressWarnings("deprecation")
 			public String format(Part part) {
-				InputValidation.begin().when(part == null, "part is null").validate();
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof Gf256Part, "gf256 parts not supported by " + this)
+					.when(part instanceof BlockPart, "block parts not supported by " + this)
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
 				StringBuilder sb = new StringBuilder();
 				BytesWritable w = new BytesWritable();
 				
@@ -271,7 +323,12 @@ public abstract class PartFormats {
 			
 			@Override
 			public String format(Part part) {
-				InputValidation.begin().when(part == null, "part is null").validate();
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof Gf256Part, "gf256 parts not supported by " + this)
+					.when(part instanceof BlockPart, "block parts not supported by " + this)
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
 				StringBuilder sb = new StringBuilder();
 				BytesWritable w = new BytesWritable();
 				
@@ -324,6 +381,229 @@ public abstract class PartFormats {
 				return 3;
 			}
 			
+		},
+
+		VERSION_4 {
+
+			private final String V = new BytesWritable().writeInt(4).toString();
+			private final String DASHED32 = "((" + Base32.DIGIT.pattern() + "|-)+)";
+			private final Pattern VALID = Pattern.compile(V + ":" + DASHED32 + "//" + DASHED32); 
+					
+			
+			@Override
+			public String format(Part part) {
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof BlockPart, "block parts not supported by " + this)
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
+				StringBuilder sb = new StringBuilder();
+				BytesWritable w = new BytesWritable();
+				
+				BigInteger mod = part.getModulus();
+				if(part instanceof PerBytePart)
+					mod = BigInteger.valueOf(-1);
+				if(part instanceof Gf256Part)
+					mod = BigInteger.valueOf(-2);
+				
+				sb.append(V + ":");
+				sb.append(dash(w
+						.writeInt(part.getLength())
+						.writeInt(part.getRequiredParts())
+						.writeBigInteger(mod)
+						.reset()));
+				sb.append("//");
+				sb.append(dash(w
+						.writeBigInteger(part.getPoint().getX())
+						.writeBigInteger(part.getPoint().getY())
+						.reset()));
+				
+				return sb.toString();
+			}
+
+			@Override
+			public Part parse(String data) {
+				InputValidation.begin().when(data == null, "data is null").validate();
+				Matcher m = VALID.matcher(data);
+				if(!m.matches())
+					throw new IllegalArgumentException("Not parseable by " + this);
+				BytesReadable r;
+				
+				r = new BytesReadable(m.group(1).replace("-", ""));
+				int length = r.readInt();
+				int requiredParts = r.readInt();
+				BigInteger modulus = r.readBigInteger();
+				
+				r = new BytesReadable(m.group(3).replace("-", ""));
+				BigInteger x = r.readBigInteger();
+				BigInteger y = r.readBigInteger();
+				BigPoint point = new BigPoint(x, y);
+				Part part;
+				if(BigInteger.valueOf(-1).equals(modulus))
+					part = new PerBytePart(4, length, requiredParts, point);
+				else if(BigInteger.valueOf(-2).equals(modulus))
+					part = new Gf256Part(4, length, requiredParts, point);
+				else
+					part = new Part(4, length, requiredParts, modulus, point);
+				return part;
+			}
+
+			@Override
+			public int getVersion() {
+				return 4;
+			}
+			
+		},
+
+		VERSION_5 {
+
+			private final String V = new BytesWritable().writeInt(5).toString();
+			private final String DASHED32 = "((" + Base32.DIGIT.pattern() + "|-)+)";
+			private final Pattern VALID = Pattern.compile(V + ":" + DASHED32 + "//" + DASHED32); 
+					
+			
+			@Override
+			public String format(Part part) {
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
+				StringBuilder sb = new StringBuilder();
+				BytesWritable w = new BytesWritable();
+				
+				BigInteger mod = part.getModulus();
+				if(part instanceof PerBytePart)
+					mod = BigInteger.valueOf(-1);
+				if(part instanceof Gf256Part)
+					mod = BigInteger.valueOf(-2);
+				if(part instanceof BlockPart)
+					mod = BigInteger.valueOf(-16 - ((BlockPart) part).getPrimeId());
+				
+				sb.append(V + ":");
+				sb.append(dash(w
+						.writeInt(part.getLength())
+						.writeInt(part.getRequiredParts())
+						.writeBigInteger(mod)
+						.reset()));
+				sb.append("//");
+				sb.append(dash(w
+						.writeBigInteger(part.getPoint().getX())
+						.writeBigInteger(part.getPoint().getY())
+						.reset()));
+				
+				return sb.toString();
+			}
+
+			@Override
+			public Part parse(String data) {
+				InputValidation.begin().when(data == null, "data is null").validate();
+				Matcher m = VALID.matcher(data);
+				if(!m.matches())
+					throw new IllegalArgumentException("Not parseable by " + this);
+				BytesReadable r;
+				
+				r = new BytesReadable(m.group(1).replace("-", ""));
+				int length = r.readInt();
+				int requiredParts = r.readInt();
+				BigInteger modulus = r.readBigInteger();
+				
+				r = new BytesReadable(m.group(3).replace("-", ""));
+				BigInteger x = r.readBigInteger();
+				BigInteger y = r.readBigInteger();
+				BigPoint point = new BigPoint(x, y);
+				Part part;
+				if(BigInteger.valueOf(-1).equals(modulus))
+					part = new PerBytePart(5, length, requiredParts, point);
+				else if(BigInteger.valueOf(-2).equals(modulus))
+					part = new Gf256Part(5, length, requiredParts, point);
+				else if(modulus.signum() < 0 && modulus.bitLength() < 32 && BlockPart.isPrimeId(-16 - modulus.intValue()))
+					part = new BlockPart(5, length, requiredParts, -16 - modulus.intValue(), point);
+				else
+					part = new Part(5, length, requiredParts, modulus, point);
+				return part;
+			}
+
+			@Override
+			public int getVersion() {
+				return 5;
+			}
+			
+		},
+
+		VERSION_6 {
+
+			private final String V = new BytesWritable().writeInt(6).toString();
+			private final String DASHED32 = "((" + Base32.DIGIT.pattern() + "|-)+)";
+			private final Pattern VALID = Pattern.compile(V + ":" + DASHED32 + "//" + DASHED32); 
+					
+			
+			@Override
+			public String format(Part part) {
+				InputValidation.begin().when(part == null, "part is null").validate();
+				StringBuilder sb = new StringBuilder();
+				BytesWritable w = new BytesWritable();
+				
+				BigInteger mod = part.getModulus();
+				if(part instanceof PerBytePart)
+					mod = BigInteger.valueOf(-1);
+				if(part instanceof Gf256Part)
+					mod = BigInteger.valueOf(-2);
+				if(part instanceof BlockPart)
+					mod = BigInteger.valueOf(-16 - ((BlockPart) part).getPrimeId());
+				if(part instanceof M61Part)
+					mod = BigInteger.valueOf(-3);
+				
+				sb.append(V + ":");
+				sb.append(dash(w
+						.writeInt(part.getLength())
+						.writeInt(part.getRequiredParts())
+						.writeBigInteger(mod)
+						.reset()));
+				sb.append("//");
+				sb.append(dash(w
+						.writeBigInteger(part.getPoint().getX())
+						.writeBigInteger(part.getPoint().getY())
+						.reset()));
+				
+				return sb.toString();
+			}
+
+			@Override
+			public Part parse(String data) {
+				InputValidation.begin().when(data == null, "data is null").validate();
+				Matcher m = VALID.matcher(data);
+				if(!m.matches())
+					throw new IllegalArgumentException("Not parseable by " + this);
+				BytesReadable r;
+				
+				r = new BytesReadable(m.group(1).replace("-", ""));
+				int length = r.readInt();
+				int requiredParts = r.readInt();
+				BigInteger modulus = r.readBigInteger();
+				
+				r = new BytesReadable(m.group(3).replace("-", ""));
+				BigInteger x = r.readBigInteger();
+				BigInteger y = r.readBigInteger();
+				BigPoint point = new BigPoint(x, y);
+				Part part;
+				if(BigInteger.valueOf(-1).equals(modulus))
+					part = new PerBytePart(6, length, requiredParts, point);
+				else if(BigInteger.valueOf(-2).equals(modulus))
+					part = new Gf256Part(6, length, requiredParts, point);
+				else if(modulus.signum() < 0 && modulus.bitLength() < 32 && BlockPart.isPrimeId(-16 - modulus.intValue()))
+					part = new BlockPart(6, length, requiredParts, -16 - modulus.intValue(), point);
+				else if(BigInteger.valueOf(-3).equals(modulus))
+					part = new M61Part(6, length, requiredParts, point);
+				else
+					part = new Part(6, length, requiredParts, modulus, point);
+				return part;
+			}
+
+			@Override
+			public int getVersion() {
+				return 6;
+			}
+			
 		}
 
 		;
@@ -355,7 +635,12 @@ public abstract class PartFormats {
 
 			@Override
 			public byte[] format(Part part) {
-				InputValidation.begin().when(part == null, "part is null").validate();
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof Gf256Part, "gf256 parts not supported by " + this)
+					.when(part instanceof BlockPart, "block parts not supported by " + this)
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
 				BytesWritable w = new BytesWritable();
 				w.writeInt(0);
 				w.writeInt(part.getLength());
@@ -389,7 +674,12 @@ public abstract class PartFormats {
 
 			@Override
 			public byte[] format(Part part) {
-				InputValidation.begin().when(part == null, "part is null").validate();
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof Gf256Part, "gf256 parts not supported by " + this)
+					.when(part instanceof BlockPart, "block parts not supported by " + this)
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
 				BytesWritable w = new BytesWritable();
 				w.writeInt(1);
 				w.writeInt(part.getLength());
@@ -425,7 +715,12 @@ public abstract class PartFormats {
 
 			@Override
 			public byte[] format(Part part) {
-				InputValidation.begin().when(part == null, "part is null").validate();
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof Gf256Part, "gf256 parts not supported by " + this)
+					.when(part instanceof BlockPart, "block parts not supported by " + this)
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
 				BytesWritable w = new BytesWritable();
 				w.writeInt(2);
 				w.writeInt(part.getLength());
@@ -458,6 +753,163 @@ public abstract class PartFormats {
 				return 2;
 			}
 			
+		},
+
+		VERSION_3 {
+
+			@Override
+			public byte[] format(Part part) {
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof BlockPart, "block parts not supported by " + this)
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
+				BytesWritable w = new BytesWritable();
+				w.writeInt(3);
+				w.writeInt(part.getLength());
+				w.writeInt(part.getRequiredParts());
+				BigInteger mod = part.getModulus();
+				if(part instanceof PerBytePart)
+					mod = BigInteger.valueOf(-1);
+				if(part instanceof Gf256Part)
+					mod = BigInteger.valueOf(-2);
+				w.writeBigInteger(mod);
+				w.writeBigInteger(part.getPoint().getX());
+				w.writeBigInteger(part.getPoint().getY());
+				return w.toByteArray();
+			}
+
+			@Override
+			public Part parse(byte[] data) {
+				InputValidation.begin().when(data == null, "data is null").validate();
+				BytesReadable r = new BytesReadable(data);
+				if(r.readInt() != 3)
+					throw new IllegalArgumentException("Not parsable by " + this);
+				int length = r.readInt();
+				int requiredParts = r.readInt();
+				BigInteger modulus = r.readBigInteger();
+				BigInteger x = r.readBigInteger();
+				BigInteger y = r.readBigInteger();
+				if(BigInteger.valueOf(-1).equals(modulus))
+					return new PerBytePart(3, length, requiredParts, new BigPoint(x, y));
+				else if(BigInteger.valueOf(-2).equals(modulus))
+					return new Gf256Part(3, length, requiredParts, new BigPoint(x, y));
+				else
+					return new Part(3, length, requiredParts, modulus, new BigPoint(x, y));
+			}
+
+			@Override
+			public int getVersion() {
+				return 3;
+			}
+			
+		},
+
+		VERSION_4 {
+
+			@Override
+			public byte[] format(Part part) {
+				InputValidation.begin()
+					.when(part == null, "part is null")
+					.when(part instanceof M61Part, "m61 parts not supported by " + this)
+					.validate();
+				BytesWritable w = new BytesWritable();
+				w.writeInt(4);
+				w.writeInt(part.getLength());
+				w.writeInt(part.getRequiredParts());
+				BigInteger mod = part.getModulus();
+				if(part instanceof PerBytePart)
+					mod = BigInteger.valueOf(-1);
+				if(part instanceof Gf256Part)
+					mod = BigInteger.valueOf(-2);
+				if(part instanceof BlockPart)
+					mod = BigInteger.valueOf(-16 - ((BlockPart) part).getPrimeId());
+				w.writeBigInteger(mod);
+				w.writeBigInteger(part.getPoint().getX());
+				w.writeBigInteger(part.getPoint().getY());
+				return w.toByteArray();
+			}
+
+			@Override
+			public Part parse(byte[] data) {
+				InputValidation.begin().when(data == null, "data is null").validate();
+				BytesReadable r = new BytesReadable(data);
+				if(r.readInt() != 4)
+					throw new IllegalArgumentException("Not parsable by " + this);
+				int length = r.readInt();
+				int requiredParts = r.readInt();
+				BigInteger modulus = r.readBigInteger();
+				BigInteger x = r.readBigInteger();
+				BigInteger y = r.readBigInteger();
+				if(BigInteger.valueOf(-1).equals(modulus))
+					return new PerBytePart(4, length, requiredParts, new BigPoint(x, y));
+				else if(BigInteger.valueOf(-2).equals(modulus))
+					return new Gf256Part(4, length, requiredParts, new BigPoint(x, y));
+				else if(modulus.signum() < 0 && modulus.bitLength() < 32 && BlockPart.isPrimeId(-16 - modulus.intValue()))
+					return new BlockPart(4, length, requiredParts, -16 - modulus.intValue(), new BigPoint(x, y));
+				else
+					return new Part(4, length, requiredParts, modulus, new BigPoint(x, y));
+			}
+
+			@Override
+			public int getVersion() {
+				return 4;
+			}
+			
+		},
+
+		VERSION_5 {
+
+			@Override
+			public byte[] format(Part part) {
+				InputValidation.begin().when(part == null, "part is null").validate();
+				BytesWritable w = new BytesWritable();
+				w.writeInt(5);
+				w.writeInt(part.getLength());
+				w.writeInt(part.getRequiredParts());
+				BigInteger mod = part.getModulus();
+				if(part instanceof PerBytePart)
+					mod = BigInteger.valueOf(-1);
+				if(part instanceof Gf256Part)
+					mod = BigInteger.valueOf(-2);
+				if(part instanceof BlockPart)
+					mod = BigInteger.valueOf(-16 - ((BlockPart) part).getPrimeId());
+				if(part instanceof M61Part)
+					mod = BigInteger.valueOf(-3);
+				w.writeBigInteger(mod);
+				w.writeBigInteger(part.getPoint().getX());
+				w.writeBigInteger(part.getPoint().getY());
+				return w.toByteArray();
+			}
+
+			@Override
+			public Part parse(byte[] data) {
+				InputValidation.begin().when(data == null, "data is null").validate();
+				BytesReadable r = new BytesReadable(data);
+				if(r.readInt() != 5)
+					throw new IllegalArgumentException("Not parsable by " + this);
+				int length = r.readInt();
+				int requiredParts = r.readInt();
+				BigInteger modulus = r.readBigInteger();
+				BigInteger x = r.readBigInteger();
+				BigInteger y = r.readBigInteger();
+				if(BigInteger.valueOf(-1).equals(modulus))
+					return new PerBytePart(5, length, requiredParts, new BigPoint(x, y));
+				else if(BigInteger.valueOf(-2).equals(modulus))
+					return new Gf256Part(5, length, requiredParts, new BigPoint(x, y));
+				else if(modulus.signum() < 0 && modulus.bitLength() < 32 && BlockPart.isPrimeId(-16 - modulus.intValue()))
+					return new BlockPart(5, length, requiredParts, -16 - modulus.intValue(), new BigPoint(x, y));
+				else if(BigInteger.valueOf(-3).equals(modulus))
+					return new M61Part(5, length, requiredParts, new BigPoint(x, y));
+				else
+					return new Part(5, length, requiredParts, modulus, new BigPoint(x, y));
+			}
+
+			@Override
+			public int getVersion() {
+				return 5;
+			}
+			
 		}
 
 		;
@@ -24,6 +24,7 @@ us know where this software is being used.
 package org.mitre.secretsharing.util;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -40,7 +41,7 @@ public abstract class BigIntegers {
 	 * @return An array of {@link BigInteger}s contained by the range
 	 */
 	public static BigInteger[] range(int from, int to) {
-		InputValidation.begin().when(from > to, "from is greater than to").validate();
+		InputValidation.check(from > to, "from is greater than to");
 		BigInteger[] bigs = new BigInteger[to - from];
 		for(int i = 0; i < bigs.length; i++)
 			bigs[i] = BigInteger.valueOf(from + i);
@@ -74,5 +75,232 @@ public abstract class BigIntegers {
 		return bigs;
 	}
 	
+	/**
+	 * Return the low {@code length} bytes of the big-endian two's-complement representation
+	 * of a {@link BigInteger}, left-padded with zero bytes if the representation is shorter.
+	 * This is how the per-byte secret parts pack their Y values into a single {@link BigInteger}.
+	 * @param val The value to convert
+	 * @param length The number of bytes to return
+	 * @return A new {@code byte[]} of length {@code length}
+	 */
+	public static byte[] toBytes(BigInteger val, int length) {
+		InputValidation.check(
+			val == null, "val is null",
+			length < 0, "length less than zero");
+		byte[] b = val.toByteArray();
+		byte[] r = new byte[length];
+		if(b.length > r.length)
+			System.arraycopy(b, b.length - r.length, r, 0, r.length);
+		else
+			System.arraycopy(b, 0, r, r.length - b.length, b.length);
+		return r;
+	}
+	
+	/**
+	 * Compute the inverses of an array of {@link BigInteger}s modulo {@code m}
+	 * with a single call to {@link BigInteger#modInverse(BigInteger)}, using
+	 * Montgomery's trick of inverting the product of all the values.
+	 * @param vals The values to invert
+	 * @param m The modulus
+	 * @return A new array of the inverses
+	 * @throws ArithmeticException If any value is not invertible
+	 */
+	public static BigInteger[] modInverse(BigInteger[] vals, BigInteger m) {
+		InputValidation.check(
+			vals == null, "vals is null",
+			m == null, "m is null");
+		BigInteger[] inv = new BigInteger[vals.length];
+		if(vals.length == 0)
+			return inv;
+		// inv[i] holds the product of all values before i
+		BigInteger acc = BigInteger.ONE;
+		for(int i = 0; i < vals.length; i++) {
+			inv[i] = acc;
+			acc = acc.multiply(vals[i]).mod(m);
+		}
+		// acc holds the inverse of the product of all values up to and including i
+		acc = acc.modInverse(m);
+		for(int i = vals.length - 1; i >= 0; i--) {
+			BigInteger t = acc.multiply(inv[i]).mod(m);
+			acc = acc.multiply(vals[i]).mod(m);
+			inv[i] = t;
+		}
+		return inv;
+	}
+	
+	/**
+	 * Compute the Lagrange weights for interpolating the value at {@code x = 0} modulo {@code m}
+	 * from points at the argument X coordinates.  The value at zero is the sum of the
+	 * products of the Y coordinates and their weights.  The weight of the point at {@code x[j]}
+	 * is the product of {@code x[i] / (x[i] - x[j])} for every {@code i != j}, and all
+	 * the denominators are inverted together by {@link #modInverse(BigInteger[], BigInteger)}.
+	 * @param x The X coordinates, which must be distinct modulo {@code m}
+	 * @param m The prime modulus
+	 * @return A new array of weights
+	 * @throws ArithmeticException If the X coordinates are not distinct
+	 */
+	public static BigInteger[] lagrangeWeights(BigInteger[] x, BigInteger m) {
+		InputValidation.check(
+			x == null, "x is null",
+			m == null, "m is null");
+		int k = x.length;
+		BigInteger[] den = new BigInteger[k];
+		for(int j = 0; j < k; j++) {
+			BigInteger d = BigInteger.ONE;
+			for(int i = 0; i < k; i++) {
+				if(i != j)
+					d = d.multiply(x[i].subtract(x[j])).mod(m);
+			}
+			den[j] = d;
+		}
+		BigInteger[] w = modInverse(den, m);
+		// the numerator for j is the product of every X but x[j], from prefix and suffix products
+		BigInteger[] suffix = new BigInteger[k + 1];
+		suffix[k] = BigInteger.ONE;
+		for(int j = k - 1; j >= 0; j--)
+			suffix[j] = suffix[j + 1].multiply(x[j]).mod(m);
+		BigInteger prefix = BigInteger.ONE;
+		for(int j = 0; j < k; j++) {
+			w[j] = w[j].multiply(prefix).mod(m).multiply(suffix[j + 1]).mod(m);
+			prefix = prefix.multiply(x[j]).mod(m);
+		}
+		return w;
+	}
+	
+	/**
+	 * Compute the Lagrange weights for interpolating the value at {@code x = 0} over the integers,
+	 * scaled by a common denominator so that they are all integers.  The value at zero is the sum
+	 * of the products of the Y coordinates and the first {@code x.length} elements of the result,
+	 * divided by the last element.  When the X coordinates are small these are all small integers.
+	 * @param x The distinct X coordinates
+	 * @return A new array of the scaled weights followed by the positive common denominator
+	 * @throws ArithmeticException If the X coordinates are not distinct
+	 */
+	public static BigInteger[] scaledLagrangeWeights(BigInteger[] x) {
+		InputValidation.check(x == null, "x is null");
+		int k = x.length;
+		BigInteger[] num = new BigInteger[k];
+		BigInteger[] den = new BigInteger[k];
+		// the numerator for j is the product of every X but x[j], from prefix and suffix products
+		BigInteger[] suffix = new BigInteger[k + 1];
+		suffix[k] = BigInteger.ONE;
+		for(int j = k - 1; j >= 0; j--)
+			suffix[j] = suffix[j + 1].multiply(x[j]);
+		BigInteger prefix = BigInteger.ONE;
+		BigInteger lcm = BigInteger.ONE;
+		for(int j = 0; j < k; j++) {
+			num[j] = prefix.multiply(suffix[j + 1]);
+			prefix = prefix.multiply(x[j]);
+			BigInteger d = BigInteger.ONE;
+			for(int i = 0; i < k; i++) {
+				if(i != j)
+					d = d.multiply(x[i].subtract(x[j]));
+			}
+			if(d.signum() == 0)
+				throw new ArithmeticException("duplicate X coordinates");
+			den[j] = d;
+			lcm = lcm.divide(lcm.gcd(d)).multiply(d.abs());
+		}
+		BigInteger[] w = new BigInteger[k + 1];
+		for(int j = 0; j < k; j++)
+			w[j] = num[j].multiply(lcm.divide(den[j]));
+		w[k] = lcm;
+		return w;
+	}
+	
+	/**
+	 * Compute the inverse of a value modulo {@code m} when the value is much smaller than {@code m}.
+	 * Only arithmetic modulo {@code a} is needed: if {@code t} is {@code -1/m} modulo {@code a}, then
+	 * {@code (1 + m*t) / a} is exact and is the inverse of {@code a} modulo {@code m}.
+	 * @param a The positive value to invert
+	 * @param m The modulus
+	 * @return The inverse of {@code a} modulo {@code m}
+	 * @throws ArithmeticException If {@code a} and {@code m} are not relatively prime
+	 */
+	public static BigInteger modInverseOfSmall(BigInteger a, BigInteger m) {
+		InputValidation.check(
+			a == null, "a is null",
+			m == null, "m is null",
+			a != null && a.signum() <= 0, "a is not positive");
+		if(a.equals(BigInteger.ONE))
+			return BigInteger.ONE;
+		BigInteger t = a.subtract(m.mod(a).modInverse(a));
+		return BigInteger.ONE.add(m.multiply(t)).divide(a).mod(m);
+	}
+	
+	/**
+	 * Interpolate the value at {@code x = 0} modulo a prime {@code m} from points.
+	 * @param x The X coordinates, which must be distinct modulo {@code m}
+	 * @param y The Y coordinates
+	 * @param m The prime modulus
+	 * @return The value at zero, modulo {@code m}
+	 * @throws ArithmeticException If the X coordinates are not distinct
+	 * @see #lagrangeZeroWeights(BigInteger[], BigInteger)
+	 */
+	public static BigInteger lagrangeZero(BigInteger[] x, BigInteger[] y, BigInteger m) {
+		InputValidation.check(
+			x == null, "x is null",
+			y == null, "y is null",
+			x != null && y != null && x.length != y.length, "x and y have different lengths",
+			m == null, "m is null");
+		return weightedZero(lagrangeZeroWeights(x, m), y, m);
+	}
+	
+	/**
+	 * Compute the weights used by {@link #lagrangeZero(BigInteger[], BigInteger[], BigInteger)}.
+	 * When the X coordinates are small, as they are for parts created by
+	 * {@link org.mitre.secretsharing.Secrets#splitMultibyte(byte[], int, int, Random)},
+	 * the weights from {@link #scaledLagrangeWeights(BigInteger[])} are used, so that the only
+	 * arithmetic on numbers the size of {@code m} is a weighted sum and one multiplication.
+	 * Otherwise the weights from {@link #lagrangeWeights(BigInteger[], BigInteger)} are used.
+	 * @param x The X coordinates, which must be distinct modulo {@code m}
+	 * @param m The prime modulus
+	 * @return A new array of one weight per X coordinate, followed by a multiplier for their weighted sum
+	 * @throws ArithmeticException If the X coordinates are not distinct
+	 * @see #weightedZero(BigInteger[], BigInteger[], BigInteger)
+	 */
+	public static BigInteger[] lagrangeZeroWeights(BigInteger[] x, BigInteger m) {
+		InputValidation.check(
+			x == null, "x is null",
+			m == null, "m is null");
+		boolean small = true;
+		for(BigInteger xi : x)
+			small &= xi.signum() > 0 && xi.bitLength() < 32;
+		if(small) {
+			BigInteger[] w = scaledLagrangeWeights(x);
+			BigInteger lcm = w[x.length];
+			if(lcm.bitLength() < m.bitLength()) {
+				w[x.length] = modInverseOfSmall(lcm, m);
+				return w;
+			}
+		}
+		BigInteger[] w = Arrays.copyOf(lagrangeWeights(x, m), x.length + 1);
+		w[x.length] = BigInteger.ONE;
+		return w;
+	}
+	
+	/**
+	 * Interpolate the value at {@code x = 0} modulo a prime {@code m} from the weights
+	 * computed by {@link #lagrangeZeroWeights(BigInteger[], BigInteger)}
+	 * @param w The weights followed by their multiplier
+	 * @param y The Y coordinates, in the same order as the X coordinates of the weights
+	 * @param m The prime modulus
+	 * @return The value at zero, modulo {@code m}
+	 */
+	public static BigInteger weightedZero(BigInteger[] w, BigInteger[] y, BigInteger m) {
+		InputValidation.check(
+			w == null, "w is null",
+			y == null, "y is null",
+			w != null && y != null && w.length != y.length + 1, "w and y have inconsistent lengths",
+			m == null, "m is null");
+		BigInteger s = BigInteger.ZERO;
+		for(int i = 0; i < y.length; i++)
+			s = s.add(w[i].multiply(y[i]));
+		s = s.mod(m);
+		if(!w[y.length].equals(BigInteger.ONE))
+			s = s.multiply(w[y.length]).mod(m);
+		return s;
+	}
+	
 	private BigIntegers() {}
 }
@@ -63,7 +63,7 @@ public class BytesReadable {
 	 * @param b Data to read
 	 */
 	public BytesReadable(byte[] b) {
-		InputValidation.begin().when(b == null, "argument is null").validate();
+		InputValidation.check(b == null, "argument is null");
 		this.b = b;
 		buf = new ByteArrayInputStream(b);
 		data = new DataInputStream(buf);
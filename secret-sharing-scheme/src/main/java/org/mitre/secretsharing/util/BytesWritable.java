@@ -52,7 +52,7 @@ public class BytesWritable {
 	 * @return This {@link BytesWritable} for chaining
 	 */
 	public BytesWritable writeBigInteger(BigInteger val) {
-		InputValidation.begin().when(val == null, "argument is null").validate();
+		InputValidation.check(val == null, "argument is null");
 		try {
 			byte[] b = val.toByteArray();
 			writeInt(b.length);
@@ -87,7 +87,7 @@ public class BytesWritable {
 	 * @return This {@link BytesWritable} for chaining
 	 */
 	public BytesWritable writeBytes(byte[] b) {
-		InputValidation.begin().when(b == null, "argument is null").validate();
+		InputValidation.check(b == null, "argument is null");
 		try {
 			data.write(b);
 		} catch(IOException e) {
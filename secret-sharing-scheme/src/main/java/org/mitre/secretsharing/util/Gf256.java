@@ -0,0 +1,164 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing.util;
+
+/**
+ * Arithmetic in the finite field GF(2^8), using the reducing polynomial
+ * x^8 + x^4 + x^3 + x + 1 ({@code 0x11B}) and log/exp tables.<p>
+ *
+ * Field elements are {@code int}s in the range 0-255.  Addition and subtraction
+ * are both XOR.
+ * @author Robin Kirkman
+ *
+ */
+public abstract class Gf256 {
+	/**
+	 * The reducing polynomial of the field
+	 */
+	public static final int POLYNOMIAL = 0x11B;
+
+	/**
+	 * The number of elements in the field
+	 */
+	public static final int SIZE = 256;
+
+	/**
+	 * Powers of the generator 3.  The table is doubled so that the sum of
+	 * two logarithms can be used as an index without reducing it mod 255.
+	 */
+	private static final int[] EXP = new int[510];
+
+	/**
+	 * Logarithms base 3.  The logarithm of 0 is undefined and left as 0.
+	 */
+	private static final int[] LOG = new int[256];
+
+	static {
+		int x = 1;
+		for(int i = 0; i < 255; i++) {
+			EXP[i] = EXP[i + 255] = x;
+			LOG[x] = i;
+			// multiply by the generator 3 = (x + 1)
+			int x2 = x << 1;
+			if((x2 & 0x100) != 0)
+				x2 ^= POLYNOMIAL;
+			x ^= x2;
+		}
+	}
+
+	/**
+	 * Add two field elements
+	 * @param a The first element
+	 * @param b The second element
+	 * @return {@code a + b}
+	 */
+	public static int add(int a, int b) {
+		return a ^ b;
+	}
+
+	/**
+	 * Multiply two field elements
+	 * @param a The first element
+	 * @param b The second element
+	 * @return {@code a * b}
+	 */
+	public static int mul(int a, int b) {
+		if(a == 0 || b == 0)
+			return 0;
+		return EXP[LOG[a] + LOG[b]];
+	}
+
+	/**
+	 * Divide two field elements
+	 * @param a The dividend
+	 * @param b The divisor, which must not be zero
+	 * @return {@code a / b}
+	 * @throws ArithmeticException If {@code b} is zero
+	 */
+	public static int div(int a, int b) {
+		if(b == 0)
+			throw new ArithmeticException("division by zero");
+		if(a == 0)
+			return 0;
+		return EXP[LOG[a] + 255 - LOG[b]];
+	}
+
+	/**
+	 * Return the logarithm of a nonzero field element
+	 * @param a The element, which must not be zero
+	 * @return The logarithm, in the range 0-254
+	 */
+	public static int log(int a) {
+		if(a == 0)
+			throw new ArithmeticException("log of zero");
+		return LOG[a];
+	}
+
+	/**
+	 * Return the generator raised to a power.  The power must be in the range 0-509,
+	 * so that the sum of two results of {@link #log(int)} is always a valid argument.
+	 * @param e The power
+	 * @return The field element
+	 */
+	public static int exp(int e) {
+		return EXP[e];
+	}
+
+	/**
+	 * Multiply a field element by another element given as its logarithm.
+	 * This is the inner step of the per-byte loops, where one multiplicand is fixed.
+	 * @param a The element
+	 * @param logb The logarithm of the other, nonzero, element
+	 * @return {@code a * b}
+	 */
+	public static int mulLog(int a, int logb) {
+		if(a == 0)
+			return 0;
+		return EXP[LOG[a] + logb];
+	}
+
+	/**
+	 * Compute the logarithms of the Lagrange weights for interpolating the value at {@code x = 0}
+	 * from points at the argument X coordinates.  The secret is then the sum of
+	 * {@code mulLog(y[i], result[i])}.
+	 * @param x The distinct nonzero X coordinates
+	 * @return The logarithms of the weights
+	 */
+	public static int[] lagrangeLogWeights(int[] x) {
+		int[] w = new int[x.length];
+		for(int i = 0; i < x.length; i++) {
+			// w[i] = product of x[j] / (x[j] - x[i]) for j != i
+			int lw = 0;
+			for(int j = 0; j < x.length; j++) {
+				if(i == j)
+					continue;
+				lw += LOG[x[j]] + 255 - LOG[x[j] ^ x[i]];
+			}
+			w[i] = lw % 255;
+		}
+		return w;
+	}
+
+	private Gf256() {}
+}
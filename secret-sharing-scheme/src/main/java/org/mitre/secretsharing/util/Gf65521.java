@@ -0,0 +1,157 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing.util;
+
+/**
+ * Arithmetic in the prime field GF(65521) on primitive {@code int}s, used by
+ * the per-byte secret parts.  65521 is the largest prime that fits in two bytes.<p>
+ * 
+ * Field elements are {@code int}s in the range 0-65520.  The product of two elements
+ * does not fit in an {@code int}, so products are computed as {@code long}s, which
+ * can also accumulate sums of many products before they need to be reduced.
+ * @author Robin Kirkman
+ *
+ */
+public abstract class Gf65521 {
+	/**
+	 * The prime modulus of the field
+	 */
+	public static final int P = 65521;
+	
+	/**
+	 * Holder for the table of multiplicative inverses, so that the table is only
+	 * computed when first used
+	 */
+	private static final class Inverses {
+		/**
+		 * The table of inverses.  The inverse of 0 is undefined and left as 0.
+		 */
+		private static final int[] INVERSE = new int[P];
+		
+		static {
+			INVERSE[1] = 1;
+			for(int i = 2; i < P; i++)
+				INVERSE[i] = (int)((P - (long)(P / i) * INVERSE[P % i] % P) % P);
+		}
+	}
+	
+	/**
+	 * Return the multiplicative inverse of a nonzero field element
+	 * @param a The element, in the range 1-65520
+	 * @return The inverse of {@code a}
+	 * @throws ArithmeticException If {@code a} is zero
+	 */
+	public static int inverse(int a) {
+		if(a == 0)
+			throw new ArithmeticException("inverse of zero");
+		return Inverses.INVERSE[a];
+	}
+	
+	/**
+	 * Multiply two field elements
+	 * @param a The first element
+	 * @param b The second element
+	 * @return {@code a * b mod P}
+	 */
+	public static int mul(int a, int b) {
+		return (int)((long) a * b % P);
+	}
+	
+	/**
+	 * Subtract two field elements
+	 * @param a The first element
+	 * @param b The second element
+	 * @return {@code a - b mod P}
+	 */
+	public static int sub(int a, int b) {
+		int d = a - b;
+		return d < 0 ? d + P : d;
+	}
+	
+	/**
+	 * Evaluate a polynomial with Horner's rule
+	 * @param coeffs The coefficients, the ith of which is multiplied by x^i
+	 * @param x The X coordinate
+	 * @return The Y coordinate
+	 */
+	public static int evaluate(int[] coeffs, int x) {
+		long y = 0;
+		for(int i = coeffs.length - 1; i >= 0; i--)
+			y = (y * x + coeffs[i]) % P;
+		return (int) y;
+	}
+	
+	/**
+	 * Fill an array with successive powers of a field element, so that
+	 * {@code powers[i] = x^i}
+	 * @param x The field element
+	 * @param powers The array to fill
+	 * @return {@code powers}
+	 */
+	public static int[] powers(int x, int[] powers) {
+		long p = 1;
+		for(int i = 0; i < powers.length; i++) {
+			powers[i] = (int) p;
+			p = p * x % P;
+		}
+		return powers;
+	}
+	
+	/**
+	 * Compute the Lagrange weight of the point at {@code x[j]} for interpolating
+	 * the value at {@code x = 0}, which is the product of {@code x[m] / (x[m] - x[j])}
+	 * for every {@code m != j}
+	 * @param x The distinct nonzero X coordinates
+	 * @param j The index of the point
+	 * @return The weight
+	 */
+	public static int lagrangeWeight(int[] x, int j) {
+		long num = 1;
+		long den = 1;
+		for(int m = 0; m < x.length; m++) {
+			if(m == j)
+				continue;
+			num = num * x[m] % P;
+			den = den * sub(x[m], x[j]) % P;
+		}
+		return (int)(num * inverse((int) den) % P);
+	}
+	
+	/**
+	 * Compute the Lagrange weights for interpolating the value at {@code x = 0} from points
+	 * at the argument X coordinates, using {@link #lagrangeWeight(int[], int)}.
+	 * The weights depend only on the X coordinates, so they are computed once and
+	 * shared by every Y coordinate interpolated at the same X coordinates.
+	 * @param x The distinct nonzero X coordinates
+	 * @return The weights
+	 */
+	public static int[] lagrangeWeights(int[] x) {
+		int[] w = new int[x.length];
+		for(int j = 0; j < x.length; j++)
+			w[j] = lagrangeWeight(x, j);
+		return w;
+	}
+	
+	private Gf65521() {}
+}
@@ -29,7 +29,10 @@ import java.util.List;
 
 /**
  * Simple class wrapping a {@link List} of {@link IllegalArgumentException}s,
- * used to perform input validation on method arguments.
+ * used to perform input validation on method arguments.<p>
+ * 
+ * The static {@code check} methods allocate nothing unless a check fails, and are used
+ * instead of {@link #begin()} by constructors and arithmetic called in inner loops.
  * @author Robin Kirkman
  *
  */
@@ -42,6 +45,70 @@ public class InputValidation {
 		return new InputValidation();
 	}
 	
+	/**
+	 * Throw an {@link InputValidationException} if {@code failureCase} is {@code true}.
+	 * Unlike {@link #begin()}, nothing is allocated unless the check fails, so this is
+	 * suitable for methods called in inner loops.
+	 * @param failureCase The result of a parameter test
+	 * @param problem The problem detected by the test, if {@code true}
+	 * @throws InputValidationException If {@code failureCase} is {@code true}
+	 */
+	public static void check(boolean failureCase, String problem) {
+		if(failureCase)
+			begin().when(failureCase, problem).validate();
+	}
+	
+	/**
+	 * Throw an {@link InputValidationException} naming every problem whose
+	 * failure case is {@code true}.  Nothing is allocated unless a check fails.
+	 * @param failureCase1 The result of the first parameter test
+	 * @param problem1 The problem detected by the first test
+	 * @param failureCase2 The result of the second parameter test
+	 * @param problem2 The problem detected by the second test
+	 * @throws InputValidationException If either failure case is {@code true}
+	 * @see #check(boolean, String)
+	 */
+	public static void check(boolean failureCase1, String problem1, boolean failureCase2, String problem2) {
+		if(failureCase1 || failureCase2)
+			begin().when(failureCase1, problem1).when(failureCase2, problem2).validate();
+	}
+	
+	/**
+	 * Throw an {@link InputValidationException} naming every problem whose
+	 * failure case is {@code true}.  Nothing is allocated unless a check fails.
+	 * @param failureCase1 The result of the first parameter test
+	 * @param problem1 The problem detected by the first test
+	 * @param failureCase2 The result of the second parameter test
+	 * @param problem2 The problem detected by the second test
+	 * @param failureCase3 The result of the third parameter test
+	 * @param problem3 The problem detected by the third test
+	 * @throws InputValidationException If any failure case is {@code true}
+	 * @see #check(boolean, String)
+	 */
+	public static void check(boolean failureCase1, String problem1, boolean failureCase2, String problem2, boolean failureCase3, String problem3) {
+		if(failureCase1 || failureCase2 || failureCase3)
+			begin().when(failureCase1, problem1).when(failureCase2, problem2).when(failureCase3, problem3).validate();
+	}
+	
+	/**
+	 * Throw an {@link InputValidationException} naming every problem whose
+	 * failure case is {@code true}.  Nothing is allocated unless a check fails.
+	 * @param failureCase1 The result of the first parameter test
+	 * @param problem1 The problem detected by the first test
+	 * @param failureCase2 The result of the second parameter test
+	 * @param problem2 The problem detected by the second test
+	 * @param failureCase3 The result of the third parameter test
+	 * @param problem3 The problem detected by the third test
+	 * @param failureCase4 The result of the fourth parameter test
+	 * @param problem4 The problem detected by the fourth test
+	 * @throws InputValidationException If any failure case is {@code true}
+	 * @see #check(boolean, String)
+	 */
+	public static void check(boolean failureCase1, String problem1, boolean failureCase2, String problem2, boolean failureCase3, String problem3, boolean failureCase4, String problem4) {
+		if(failureCase1 || failureCase2 || failureCase3 || failureCase4)
+			begin().when(failureCase1, problem1).when(failureCase2, problem2).when(failureCase3, problem3).when(failureCase4, problem4).validate();
+	}
+	
 	/**
 	 * List of {@link IllegalArgumentException}, created lazily
 	 */
@@ -0,0 +1,146 @@
+/*
+
+Copyright 2016 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing.util;
+
+/**
+ * Arithmetic in the prime field modulo the Mersenne prime {@code 2^61 - 1} on primitive
+ * {@code long}s, used by the {@link org.mitre.secretsharing.M61Part}s.<p>
+ * 
+ * Field elements are {@code long}s in the range {@code 0} to {@code P - 1}.  Because
+ * {@code 2^61} is 1 modulo {@code P}, reduction is a shift, a mask and an add.  The
+ * 122-bit product of two elements is formed from its high and low 64-bit words.
+ * @author Robin Kirkman
+ *
+ */
+public abstract class Mersenne61 {
+	/**
+	 * The prime modulus of the field, {@code 2^61 - 1}
+	 */
+	public static final long P = (1L << 61) - 1;
+	
+	/**
+	 * Reduce a nonnegative {@code long} modulo {@link #P}
+	 * @param a The value
+	 * @return {@code a mod P}
+	 */
+	public static long reduce(long a) {
+		a = (a & P) + (a >>> 61);
+		return a >= P ? a - P : a;
+	}
+	
+	/**
+	 * Add two field elements
+	 * @param a The first element
+	 * @param b The second element
+	 * @return {@code a + b mod P}
+	 */
+	public static long add(long a, long b) {
+		long s = a + b;
+		return s >= P ? s - P : s;
+	}
+	
+	/**
+	 * Subtract two field elements
+	 * @param a The first element
+	 * @param b The second element
+	 * @return {@code a - b mod P}
+	 */
+	public static long sub(long a, long b) {
+		long d = a - b;
+		return d < 0 ? d + P : d;
+	}
+	
+	/**
+	 * Return the high 64 bits of the 128-bit product of two nonnegative {@code long}s.
+	 * This is {@code Math.multiplyHigh}, which is not available before Java 9.
+	 * @param a The first multiplicand
+	 * @param b The second multiplicand
+	 * @return The high word of {@code a * b}
+	 */
+	static long multiplyHigh(long a, long b) {
+		long a1 = a >>> 32;
+		long a0 = a & 0xFFFFFFFFL;
+		long b1 = b >>> 32;
+		long b0 = b & 0xFFFFFFFFL;
+		long t = a1 * b0 + ((a0 * b0) >>> 32);
+		long u = a0 * b1 + (t & 0xFFFFFFFFL);
+		return a1 * b1 + (t >>> 32) + (u >>> 32);
+	}
+	
+	/**
+	 * Multiply two field elements
+	 * @param a The first element
+	 * @param b The second element
+	 * @return {@code a * b mod P}
+	 */
+	public static long mul(long a, long b) {
+		long hi = multiplyHigh(a, b);
+		long lo = a * b;
+		// a * b = hi * 2^64 + lo, and 2^64 = 8 mod P
+		return reduce((lo & P) + (lo >>> 61) + (hi << 3));
+	}
+	
+	/**
+	 * Return the multiplicative inverse of a nonzero field element, as its {@code (P-2)}th power
+	 * @param a The element
+	 * @return The inverse of {@code a}
+	 * @throws ArithmeticException If {@code a} is zero
+	 */
+	public static long inverse(long a) {
+		if(a == 0)
+			throw new ArithmeticException("inverse of zero");
+		long r = 1;
+		for(long e = P - 2; e != 0; e >>>= 1) {
+			if((e & 1) != 0)
+				r = mul(r, a);
+			a = mul(a, a);
+		}
+		return r;
+	}
+	
+	/**
+	 * Compute the Lagrange weights for interpolating the value at {@code x = 0} from points
+	 * at the argument X coordinates.  The weight of the point at {@code x[j]} is the product
+	 * of {@code x[m] / (x[m] - x[j])} for every {@code m != j}.
+	 * @param x The distinct nonzero X coordinates
+	 * @return The weights
+	 */
+	public static long[] lagrangeWeights(long[] x) {
+		long[] w = new long[x.length];
+		for(int j = 0; j < x.length; j++) {
+			long num = 1;
+			long den = 1;
+			for(int m = 0; m < x.length; m++) {
+				if(m == j)
+					continue;
+				num = mul(num, x[m]);
+				den = mul(den, sub(x[m], x[j]));
+			}
+			w[j] = mul(num, inverse(den));
+		}
+		return w;
+	}
+	
+	private Mersenne61() {}
+}
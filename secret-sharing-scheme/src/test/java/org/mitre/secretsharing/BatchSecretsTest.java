@@ -0,0 +1,106 @@
+package org.mitre.secretsharing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchSecretsTest {
+	private static List<byte[]> secrets(int count) {
+		Random rnd = new Random(count);
+		List<byte[]> secrets = new ArrayList<byte[]>();
+		for(int i = 0; i < count; i++) {
+			secrets.add(TestParts.secret(rnd, i % 3 == 0 ? 32 : 1 + i % 40));
+		}
+		return secrets;
+	}
+	
+	@Test
+	public void testSplitBatch() {
+		List<byte[]> secrets = secrets(50);
+		SplitBatch batch = Secrets.splitBatch(secrets, 5, 3, new Random(0L));
+		Assert.assertEquals(secrets.size(), batch.size());
+		for(int i = 0; i < batch.size(); i++) {
+			Part[] parts = batch.getParts(i);
+			Assert.assertEquals(5, parts.length);
+			Assert.assertArrayEquals(secrets.get(i), Secrets.join(Arrays.copyOfRange(parts, 2, 5)));
+		}
+	}
+	
+	@Test
+	public void testSplitBatchSharedPrime() {
+		Random rnd = new Random(1L);
+		List<byte[]> secrets = new ArrayList<byte[]>();
+		for(int i = 0; i < 20; i++)
+			secrets.add(TestParts.secret(rnd, 16));
+		SplitBatch batch = Secrets.splitBatch(secrets, 6, 4, rnd);
+		for(int i = 0; i < batch.size(); i++) {
+			Part[] parts = batch.getParts(i);
+			Assert.assertEquals(batch.getParts(0)[0].getModulus(), parts[0].getModulus());
+			for(int from = 0; from + 4 <= parts.length; from++)
+				Assert.assertArrayEquals(secrets.get(i), Secrets.join(Arrays.copyOfRange(parts, from, from + 4)));
+		}
+	}
+	
+	@Test
+	public void testSplitPerByteBatch() {
+		List<byte[]> secrets = secrets(50);
+		secrets.add(7, new byte[0]);
+		SplitBatch batch = Secrets.splitPerByteBatch(secrets, 5, 3, new Random(0L));
+		Assert.assertEquals(secrets.size(), batch.size());
+		for(int i = 0; i < batch.size(); i++) {
+			Part[] parts = batch.getParts(i);
+			Assert.assertTrue(parts[0] instanceof PerBytePart);
+			Assert.assertEquals(secrets.get(i).length, batch.getLength(i));
+			Assert.assertArrayEquals(secrets.get(i), Secrets.join(Arrays.copyOfRange(parts, 1, 4)));
+		}
+	}
+	
+	@Test
+	public void testSameHolders() {
+		SplitBatch batch = Secrets.splitPerByteBatch(secrets(10), 4, 2, new Random(0L));
+		for(int j = 0; j < batch.getTotalParts(); j++) {
+			for(int i = 1; i < batch.size(); i++)
+				Assert.assertEquals(batch.getPart(0, j).getPoint().getX(), batch.getPart(i, j).getPoint().getX());
+		}
+	}
+	
+	@Test
+	public void testJoinBatch() {
+		List<byte[]> secrets = secrets(60);
+		SplitBatch multibyte = Secrets.splitBatch(secrets, 6, 3, new Random(0L));
+		SplitBatch perByte = Secrets.splitPerByteBatch(secrets, 6, 3, new Random(0L));
+		Random rnd = new Random(1L);
+		List<Part[]> batch = new ArrayList<Part[]>();
+		List<byte[]> expected = new ArrayList<byte[]>();
+		for(int i = 0; i < secrets.size(); i++) {
+			// a few sets of share holders, in any order
+			int from = i % 3;
+			List<Part> parts = new ArrayList<Part>(Arrays.asList(Arrays.copyOfRange((i % 2 == 0 ? multibyte : perByte).getParts(i), from, from + 3 + i % 2)));
+			Collections.shuffle(parts, rnd);
+			batch.add(parts.toArray(new Part[0]));
+			expected.add(secrets.get(i));
+		}
+		for(int i = 0; i < 10; i++) {
+			batch.add(Arrays.copyOf(Secrets.splitGf256(secrets.get(i), 4, 2, rnd), 2));
+			batch.add(Arrays.copyOf(Secrets.splitM61(secrets.get(i), 4, 2, rnd), 2));
+			batch.add(Arrays.copyOf(Secrets.splitBlocks(secrets.get(i), 4, 2, rnd), 2));
+			for(int j = 0; j < 3; j++)
+				expected.add(secrets.get(i));
+		}
+		byte[][] joined = Secrets.joinBatch(batch);
+		Assert.assertEquals(expected.size(), joined.length);
+		for(int i = 0; i < joined.length; i++)
+			Assert.assertArrayEquals(expected.get(i), joined[i]);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testJoinBatchTooFew() {
+		SplitBatch batch = Secrets.splitPerByteBatch(secrets(3), 4, 3, new Random(0L));
+		Secrets.joinBatch(Arrays.asList(batch.getParts(0), Arrays.copyOf(batch.getParts(1), 2)));
+	}
+}
@@ -0,0 +1,90 @@
+package org.mitre.secretsharing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.mitre.secretsharing.codec.PartFormats;
+
+@RunWith(Parameterized.class)
+public class BlockSecretsTest {
+
+	@Parameters
+	public static Iterable<Object[]> params() {
+		List<Object[]> p = new ArrayList<Object[]>();
+		Random rnd = new Random(0L);
+		for(int len : new int[] {0, 1, 31, 32, 33, 63, 64, 65, 200}) {
+			for(int primeId : new int[] {BlockPart.PRIME_256, BlockPart.PRIME_512}) {
+				byte[] b = new byte[len];
+				rnd.nextBytes(b);
+				// all-ones blocks are the largest block values
+				if(len > 40)
+					Arrays.fill(b, 0, 40, (byte) 0xFF);
+				p.add(new Object[] {b, primeId});
+			}
+		}
+		return p;
+	}
+
+	private byte[] b;
+	private int primeId;
+	
+	public BlockSecretsTest(byte[] b, int primeId) {
+		this.b = b;
+		this.primeId = primeId;
+	}
+	
+	@Test
+	public void testSecret() {
+		BlockPart[] parts = Secrets.splitBlocks(b, 5, 3, primeId, new Random(0L), null);
+		byte[] r = Secrets.joinBlocks(Arrays.copyOfRange(parts, 2, 5));
+		Assert.assertArrayEquals(b, r);
+	}
+	
+	@Test
+	public void testAllParts() {
+		Part[] parts = Secrets.splitBlocks(b, 20, 7, primeId, new Random(0L), null);
+		Assert.assertArrayEquals(b, Secrets.join(parts));
+	}
+	
+	@Test
+	public void testParallel() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			BlockPart[] seq = Secrets.splitBlocks(b, 5, 3, primeId, new Random(1L), null);
+			BlockPart[] par = Secrets.splitBlocks(b, 5, 3, primeId, new Random(1L), pool);
+			Assert.assertArrayEquals(b, Secrets.joinBlocks(par, pool));
+			Assert.assertArrayEquals(b, Secrets.joinBlocks(seq, pool));
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public void testFormat() {
+		Part[] parts = Secrets.splitBlocks(b, 5, 3, primeId, new Random(0L), null);
+		Part[] parsed = new Part[parts.length];
+		for(int i = 0; i < parts.length; i++) {
+			parsed[i] = PartFormats.parse(parts[i].toString());
+			Assert.assertTrue(parsed[i] instanceof BlockPart);
+			Assert.assertEquals(primeId, ((BlockPart) parsed[i]).getPrimeId());
+			Part fromBytes = PartFormats.parse(PartFormats.currentBytesFormat().format(parts[i]));
+			Assert.assertTrue(fromBytes instanceof BlockPart);
+			Assert.assertEquals(parts[i].getPoint().getY(), fromBytes.getPoint().getY());
+		}
+		Assert.assertArrayEquals(b, Secrets.join(Arrays.copyOf(parsed, 3)));
+	}
+	
+	@Test
+	public void testPrimes() {
+		Assert.assertTrue(BlockPart.prime(primeId).isProbablePrime(64));
+		Assert.assertEquals(BlockPart.blockBytes(primeId) * 8 + 1, BlockPart.prime(primeId).bitLength());
+	}
+}
@@ -0,0 +1,83 @@
+package org.mitre.secretsharing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mitre.secretsharing.util.InputValidationException;
+
+public class ConsistencyCheckTest {
+	@Test
+	public void testConsistentParts() {
+		Random rnd = new Random(0L);
+		for(int k = 1; k <= 6; k++) {
+			byte[] secret = TestParts.secret(rnd, 20 + 13 * k);
+			for(Part[] split : TestParts.splits(secret, 9, k, rnd)) {
+				Assert.assertEquals(0, Secrets.inconsistentParts(split).length);
+				Assert.assertEquals(0, Secrets.inconsistentParts(Arrays.copyOf(split, k)).length);
+			}
+		}
+	}
+	
+	@Test
+	public void testTamperedPartsReported() {
+		Random rnd = new Random(1L);
+		for(int k = 1; k <= 6; k++) {
+			byte[] secret = TestParts.secret(rnd, 20 + 13 * k);
+			for(Part[] split : TestParts.splits(secret, 9, k, rnd)) {
+				Part[] parts = split.clone();
+				List<Part> tampered = new ArrayList<Part>();
+				for(int i = k; i < parts.length; i += 2) {
+					parts[i] = TestParts.tamper(parts[i]);
+					tampered.add(parts[i]);
+				}
+				Assert.assertEquals(tampered, Arrays.asList(Secrets.inconsistentParts(parts)));
+			}
+		}
+	}
+	
+	@Test
+	public void testTamperedFirstPart() {
+		Random rnd = new Random(2L);
+		byte[] secret = TestParts.secret(rnd, 50);
+		for(Part[] split : TestParts.splits(secret, 7, 3, rnd)) {
+			Part[] parts = split.clone();
+			parts[0] = TestParts.tamper(parts[0]);
+			Assert.assertEquals(Arrays.asList(split).subList(3, 7), Arrays.asList(Secrets.inconsistentParts(parts)));
+		}
+	}
+	
+	@Test
+	public void testJoinIgnoresExtraParts() {
+		Random rnd = new Random(3L);
+		for(int k = 1; k <= 6; k++) {
+			byte[] secret = TestParts.secret(rnd, 20 + 13 * k);
+			for(Part[] split : TestParts.splits(secret, 9, k, rnd)) {
+				Part[] parts = split.clone();
+				for(int i = k; i < parts.length; i++)
+					parts[i] = TestParts.tamper(parts[i]);
+				Assert.assertArrayEquals(secret, Secrets.join(parts));
+				Assert.assertArrayEquals(secret, Secrets.joinBatch(Arrays.<Part[]>asList(parts))[0]);
+			}
+		}
+	}
+	
+	@Test(expected = InputValidationException.class)
+	public void testTooFewParts() {
+		Random rnd = new Random(4L);
+		Part[] split = Secrets.splitPerByte(TestParts.secret(rnd, 10), 5, 3, rnd);
+		Secrets.inconsistentParts(Arrays.copyOf(split, 2));
+	}
+	
+	@Test(expected = InputValidationException.class)
+	public void testDuplicateExtraPart() {
+		Random rnd = new Random(5L);
+		Part[] split = Secrets.splitGf256(TestParts.secret(rnd, 10), 5, 3, rnd);
+		Part[] parts = Arrays.copyOf(split, 4);
+		parts[3] = split[0];
+		Secrets.inconsistentParts(parts);
+	}
+}
@@ -0,0 +1,61 @@
+package org.mitre.secretsharing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.mitre.secretsharing.codec.PartFormats;
+
+@RunWith(Parameterized.class)
+public class Gf256SecretsTest {
+
+	@Parameters
+	public static Iterable<Object[]> params() {
+		List<Object[]> p = new ArrayList<Object[]>();
+		Random rnd = new Random(0L);
+		for(int i = 0; i <= 32; i++) {
+			byte[] b = new byte[i];
+			rnd.nextBytes(b);
+			p.add(new Object[] {b});
+		}
+		return p;
+	}
+
+	private byte[] b;
+	
+	public Gf256SecretsTest(byte[] b) {
+		this.b = b;
+	}
+	
+	@Test
+	public void testSecret() {
+		Gf256Part[] parts = Secrets.splitGf256(b, 5, 3, new Random(0L));
+		byte[] r = Secrets.joinGf256(Arrays.copyOfRange(parts, 2, 5));
+		Assert.assertTrue(Arrays.equals(b, r));
+	}
+	
+	@Test
+	public void testAllParts() {
+		Part[] parts = Secrets.splitGf256(b, 255, 4, new Random(0L));
+		Assert.assertTrue(Arrays.equals(b, Secrets.join(parts)));
+	}
+	
+	@Test
+	public void testFormat() {
+		Part[] parts = Secrets.splitGf256(b, 5, 3, new Random(0L));
+		Part[] parsed = new Part[parts.length];
+		for(int i = 0; i < parts.length; i++) {
+			parsed[i] = PartFormats.parse(parts[i].toString());
+			Assert.assertTrue(parsed[i] instanceof Gf256Part);
+			Part fromBytes = PartFormats.parse(PartFormats.currentBytesFormat().format(parts[i]));
+			Assert.assertTrue(fromBytes instanceof Gf256Part);
+		}
+		Assert.assertTrue(Arrays.equals(b, Secrets.join(Arrays.copyOf(parsed, 3))));
+	}
+}
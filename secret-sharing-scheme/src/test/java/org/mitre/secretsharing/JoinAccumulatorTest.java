@@ -0,0 +1,66 @@
+package org.mitre.secretsharing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mitre.secretsharing.util.InputValidationException;
+
+public class JoinAccumulatorTest {
+	@Test
+	public void testOneAtATime() {
+		Random rnd = new Random(0L);
+		for(int k = 1; k <= 6; k++) {
+			byte[] secret = TestParts.secret(rnd, 20 + 13 * k);
+			for(Part[] split : TestParts.splits(secret, 8, k, rnd)) {
+				List<Part> parts = new ArrayList<Part>(Arrays.asList(split));
+				Collections.shuffle(parts, rnd);
+				JoinAccumulator acc = new JoinAccumulator();
+				Assert.assertEquals(-1, acc.getRequiredParts());
+				for(int i = 0; i < parts.size(); i++) {
+					Assert.assertEquals(i + 1 >= k, acc.add(parts.get(i)));
+					Assert.assertEquals(i + 1, acc.size());
+					if(acc.isComplete())
+						Assert.assertArrayEquals(secret, acc.getSecret());
+				}
+				Assert.assertEquals(k, acc.getRequiredParts());
+			}
+		}
+	}
+	
+	@Test
+	public void testRejectedPartLeavesStateUnchanged() {
+		Random rnd = new Random(1L);
+		byte[] secret = TestParts.secret(rnd, 40);
+		for(Part[] split : TestParts.splits(secret, 5, 3, rnd)) {
+			JoinAccumulator acc = new JoinAccumulator();
+			acc.add(split[0]);
+			acc.add(split[1]);
+			try {
+				acc.add(split[1]);
+				Assert.fail();
+			} catch(InputValidationException e) {
+				Assert.assertEquals("duplicate X coordinates", e.getMessage());
+			}
+			try {
+				acc.add(Secrets.splitGf256(secret, 5, 2, rnd)[4]);
+				Assert.fail();
+			} catch(InputValidationException e) {
+			}
+			Assert.assertEquals(2, acc.size());
+			Assert.assertTrue(acc.add(split[4]));
+			Assert.assertArrayEquals(secret, acc.getSecret());
+		}
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testIncomplete() {
+		JoinAccumulator acc = new JoinAccumulator();
+		acc.add(Secrets.splitPerByte(new byte[10], 5, 3, new Random(2L))[0]);
+		acc.getSecret();
+	}
+}
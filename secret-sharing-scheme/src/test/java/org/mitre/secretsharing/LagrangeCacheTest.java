@@ -0,0 +1,130 @@
+package org.mitre.secretsharing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LagrangeCacheTest {
+	@After
+	public void uninstall() {
+		Secrets.setLagrangeCache(null);
+	}
+	
+	@Test
+	public void testHitsAndMisses() {
+		LagrangeCache cache = new LagrangeCache(100);
+		Secrets.setLagrangeCache(cache);
+		Random rnd = new Random(0L);
+		byte[] secret = TestParts.secret(rnd, 33);
+		for(Part[] parts : TestParts.splits(secret, 5, 3, rnd)) {
+			List<Part> holders = new ArrayList<Part>(Arrays.asList(parts[4], parts[1], parts[2]));
+			for(int i = 0; i < 4; i++) {
+				// the same holders in any order share an entry
+				Collections.shuffle(holders, rnd);
+				Assert.assertArrayEquals(secret, Secrets.join(holders.toArray(new Part[0])));
+			}
+		}
+		Assert.assertEquals(5, cache.getMisses());
+		Assert.assertEquals(15, cache.getHits());
+		Assert.assertEquals(5, cache.size());
+		Assert.assertEquals(0, cache.getEvictions());
+	}
+	
+	@Test
+	public void testEviction() {
+		LagrangeCache cache = new LagrangeCache(3);
+		Secrets.setLagrangeCache(cache);
+		Random rnd = new Random(1L);
+		byte[] secret = TestParts.secret(rnd, 33);
+		Part[] parts = Secrets.splitPerByte(secret, 6, 2, rnd);
+		for(int i = 0; i < 5; i++)
+			Assert.assertArrayEquals(secret, Secrets.join(new Part[] {parts[i], parts[i + 1]}));
+		Assert.assertEquals(3, cache.size());
+		Assert.assertEquals(2, cache.getEvictions());
+		// the least recently used entry is gone
+		Secrets.join(new Part[] {parts[0], parts[1]});
+		Assert.assertEquals(6, cache.getMisses());
+		Secrets.join(new Part[] {parts[4], parts[5]});
+		Assert.assertEquals(1, cache.getHits());
+	}
+	
+	@Test
+	public void testWeightEviction() {
+		LagrangeCache cache = new LagrangeCache(100, 500);
+		Secrets.setLagrangeCache(cache);
+		Random rnd = new Random(2L);
+		byte[] secret = TestParts.secret(rnd, 33);
+		Part[] parts = Secrets.splitBlocks(secret, 10, 2, rnd);
+		for(int i = 0; i < 9; i++)
+			Assert.assertArrayEquals(secret, Secrets.join(new Part[] {parts[i], parts[i + 1]}));
+		Assert.assertTrue(cache.getWeight() <= 500);
+		Assert.assertTrue(cache.getEvictions() > 0);
+		Assert.assertEquals(9 - cache.getEvictions(), cache.size());
+	}
+	
+	@Test
+	public void testBatchAndShareSet() {
+		LagrangeCache cache = new LagrangeCache(100);
+		Secrets.setLagrangeCache(cache);
+		Random rnd = new Random(3L);
+		ShareSet set = new ShareSet();
+		List<Part[]> batch = new ArrayList<Part[]>();
+		List<byte[]> secrets = new ArrayList<byte[]>();
+		for(int i = 0; i < 20; i++) {
+			byte[] secret = TestParts.secret(rnd, 33);
+			secrets.add(secret);
+			Part[] parts = Arrays.copyOf(i % 2 == 0 ? Secrets.split(secret, 4, 2, rnd) : Secrets.splitGf256(secret, 4, 2, rnd), 2);
+			set.add(parts);
+			batch.add(parts);
+		}
+		byte[][] joined = set.joinAll();
+		byte[][] batchJoined = Secrets.joinBatch(batch);
+		for(int i = 0; i < secrets.size(); i++) {
+			Assert.assertArrayEquals(secrets.get(i), joined[i]);
+			Assert.assertArrayEquals(secrets.get(i), batchJoined[i]);
+		}
+		// each multibyte secret has its own random prime, the gf256 secrets share one entry
+		Assert.assertEquals(11, cache.getMisses());
+		// the batch joins one group per multibyte secret and one gf256 group
+		Assert.assertEquals(20, cache.getHits());
+	}
+	
+	@Test
+	public void testConcurrentJoins() throws Exception {
+		final LagrangeCache cache = new LagrangeCache(2);
+		Secrets.setLagrangeCache(cache);
+		Random rnd = new Random(4L);
+		final byte[] secret = TestParts.secret(rnd, 33);
+		final Part[] parts = Secrets.splitM61(secret, 6, 3, rnd);
+		final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+		Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++) {
+			final int offset = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for(int i = 0; i < 200; i++) {
+							int from = (i + offset) % 4;
+							Assert.assertArrayEquals(secret, Secrets.join(Arrays.copyOfRange(parts, from, from + 3)));
+						}
+					} catch(Throwable e) {
+						errors.add(e);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for(Thread t : threads)
+			t.join();
+		Assert.assertEquals(Collections.emptyList(), errors);
+		Assert.assertEquals(800, cache.getHits() + cache.getMisses());
+		Assert.assertTrue(cache.size() <= 2);
+	}
+}
@@ -0,0 +1,62 @@
+package org.mitre.secretsharing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.mitre.secretsharing.codec.PartFormats;
+
+@RunWith(Parameterized.class)
+public class M61SecretsTest {
+
+	@Parameters
+	public static Iterable<Object[]> params() {
+		List<Object[]> p = new ArrayList<Object[]>();
+		Random rnd = new Random(0L);
+		for(int i = 0; i <= 32; i++) {
+			// the lengths cover every remainder modulo the 7-byte element size
+			byte[] b = new byte[i * 3];
+			rnd.nextBytes(b);
+			p.add(new Object[] {b});
+		}
+		return p;
+	}
+
+	private byte[] b;
+	
+	public M61SecretsTest(byte[] b) {
+		this.b = b;
+	}
+	
+	@Test
+	public void testSecret() {
+		M61Part[] parts = Secrets.splitM61(b, 5, 3, new Random(0L));
+		byte[] r = Secrets.joinM61(Arrays.copyOfRange(parts, 2, 5));
+		Assert.assertTrue(Arrays.equals(b, r));
+	}
+	
+	@Test
+	public void testAllParts() {
+		Part[] parts = Secrets.splitM61(b, 300, 4, new Random(0L));
+		Assert.assertTrue(Arrays.equals(b, Secrets.join(parts)));
+	}
+	
+	@Test
+	public void testFormat() {
+		Part[] parts = Secrets.splitM61(b, 5, 3, new Random(0L));
+		Part[] parsed = new Part[parts.length];
+		for(int i = 0; i < parts.length; i++) {
+			parsed[i] = PartFormats.parse(parts[i].toString());
+			Assert.assertTrue(parsed[i] instanceof M61Part);
+			Part fromBytes = PartFormats.parse(PartFormats.currentBytesFormat().format(parts[i]));
+			Assert.assertTrue(fromBytes instanceof M61Part);
+		}
+		Assert.assertTrue(Arrays.equals(b, Secrets.join(Arrays.copyOf(parsed, 3))));
+	}
+}
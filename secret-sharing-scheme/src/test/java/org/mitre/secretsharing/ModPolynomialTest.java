@@ -0,0 +1,85 @@
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.mitre.secretsharing.util.BigIntegers;
+
+@RunWith(Parameterized.class)
+public class ModPolynomialTest {
+	private static final Random rnd = new Random(0L);
+	
+	@Parameters
+	public static Iterable<Object[]> params() {
+		List<Object[]> p = new ArrayList<Object[]>();
+		for(int i = 0; i < 50; i++) {
+			BigInteger secret = new BigInteger(64, rnd);
+			int powx = 1 + (i % 9);
+			p.add(new Object[] {secret, powx});
+		}
+		return p;
+	}
+	
+	private BigInteger secret;
+	private int powx;
+	
+	public ModPolynomialTest(BigInteger secret, int powx) {
+		this.secret = secret;
+		this.powx = powx;
+	}
+	
+	@Test
+	public void testReconstructSecret() {
+		ModPolynomial sp = new ModPolynomial(secret, 64, powx, rnd);
+		BigPoint[] pts = sp.p(BigIntegers.range(1, powx+2));
+		ModPolynomial lp = new ModPolynomial(pts, sp.getModulus());
+		Assert.assertEquals(sp, lp);
+		Assert.assertEquals(secret, lp.y(BigInteger.ZERO));
+	}
+	
+	@Test
+	public void testMatchesRationalInterpolation() {
+		ModPolynomial sp = new ModPolynomial(secret, 64, powx, rnd);
+		BigInteger m = sp.getModulus();
+		BigPoint[] pts = sp.p(BigIntegers.range(3, powx+4));
+		Term[] rational = TermPolynomial.lagrangePolynomial(pts, null).getTerms();
+		BigInteger[] c = ModPolynomial.lagrangePolynomial(pts, m).getCoefficients();
+		Assert.assertEquals(rational.length, c.length);
+		for(int i = 0; i < c.length; i++) {
+			BigInteger n = rational[i].getNumerator();
+			BigInteger d = rational[i].getDenominator();
+			Assert.assertEquals(n.multiply(d.modInverse(m)).mod(m), c[i]);
+		}
+	}
+	
+	@Test
+	public void testNewtonPolynomial() {
+		ModPolynomial sp = new ModPolynomial(secret, 64, 5 * powx, rnd);
+		BigInteger m = sp.getModulus();
+		// random distinct X coordinates, in no particular order
+		Set<BigInteger> xs = new LinkedHashSet<BigInteger>();
+		while(xs.size() < 5 * powx + 1)
+			xs.add(new BigInteger(m.bitLength() - 1, rnd));
+		BigPoint[] pts = sp.p(xs.toArray(new BigInteger[0]));
+		Assert.assertEquals(sp, ModPolynomial.newtonPolynomial(pts, m));
+		Assert.assertEquals(sp.toTermPolynomial(), TermPolynomial.newtonPolynomial(pts, m));
+	}
+	
+	@Test(expected = ArithmeticException.class)
+	public void testNewtonDuplicateX() {
+		ModPolynomial sp = new ModPolynomial(secret, 64, powx, rnd);
+		BigPoint[] pts = sp.p(BigIntegers.range(1, powx + 2));
+		// congruent X coordinates
+		pts[1] = new BigPoint(pts[0].getX().add(sp.getModulus()), pts[1].getY());
+		ModPolynomial.newtonPolynomial(pts, sp.getModulus());
+	}
+}
@@ -0,0 +1,71 @@
+package org.mitre.secretsharing;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelSecretsTest {
+	private static final ForkJoinPool pool = new ForkJoinPool(4);
+	
+	@AfterClass
+	public static void shutdown() {
+		pool.shutdown();
+	}
+	
+	private static byte[] secret(int length) {
+		byte[] b = new byte[length];
+		new Random(length).nextBytes(b);
+		return b;
+	}
+	
+	@Test
+	public void testPerByte() {
+		for(int length : new int[] {0, 1, ParallelBytes.CHUNK, 3 * ParallelBytes.CHUNK + 17}) {
+			byte[] b = secret(length);
+			PerBytePart[] parts = Secrets.splitPerByte(b, 5, 3, new Random(0L), pool);
+			Assert.assertTrue(Arrays.equals(b, Secrets.joinPerByte(Arrays.copyOfRange(parts, 1, 4), pool)));
+			Assert.assertTrue(Arrays.equals(b, Secrets.joinPerByte(Arrays.copyOfRange(parts, 2, 5))));
+		}
+	}
+	
+	@Test
+	public void testGf256() {
+		for(int length : new int[] {0, 1, ParallelBytes.CHUNK, 3 * ParallelBytes.CHUNK + 17}) {
+			byte[] b = secret(length);
+			Gf256Part[] parts = Secrets.splitGf256(b, 5, 3, new Random(0L), pool);
+			Assert.assertTrue(Arrays.equals(b, Secrets.joinGf256(Arrays.copyOfRange(parts, 1, 4), pool)));
+			Assert.assertTrue(Arrays.equals(b, Secrets.joinGf256(Arrays.copyOfRange(parts, 2, 5))));
+		}
+	}
+	
+	@Test
+	public void testDeterministic() {
+		byte[] b = secret(5 * ParallelBytes.CHUNK);
+		Gf256Part[] p1 = Secrets.splitGf256(b, 5, 3, new Random(1L), pool);
+		ForkJoinPool single = new ForkJoinPool(1);
+		try {
+			Gf256Part[] p2 = Secrets.splitGf256(b, 5, 3, new Random(1L), single);
+			for(int i = 0; i < p1.length; i++)
+				Assert.assertEquals(p1[i].getPoint().getY(), p2[i].getPoint().getY());
+		} finally {
+			single.shutdown();
+		}
+	}
+	
+	@Test
+	public void testMultibyte() {
+		byte[] b = secret(64);
+		b[0] &= 0x7f;
+		Part[] p1 = Secrets.splitMultibyte(b, 100, 3, new Random(2L));
+		Part[] p2 = Secrets.splitMultibyte(b, 100, 3, new Random(2L), pool);
+		for(int i = 0; i < p1.length; i++) {
+			Assert.assertEquals(p1[i].getPoint().getX(), p2[i].getPoint().getX());
+			Assert.assertEquals(p1[i].getPoint().getY(), p2[i].getPoint().getY());
+		}
+		Assert.assertTrue(Arrays.equals(b, Secrets.join(Arrays.copyOfRange(p2, 40, 43))));
+	}
+}
@@ -0,0 +1,70 @@
+package org.mitre.secretsharing;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mitre.secretsharing.codec.PartFormat;
+import org.mitre.secretsharing.codec.PartFormats;
+
+/**
+ * Checks that per-byte parts are still split exactly as they were by the
+ * original {@link TermPolynomial}-based implementation
+ */
+public class PerByteCompatibilityTest {
+	private static final PartFormat<String> VERSION_3 = PartFormats.stringFormat(3);
+	
+	private static final String[] EXPECTED = new String[] {
+		"gc:hy1r3z-r//gc0bmd-mz03ve-dkvjrr-d8m7tt-6wfs1p-yyh3g3-vdyr9e-yhqy3a-se7cqp-mhj8",
+		"gc:hy1r3z-r//gc0axq-cz02wt-kyhsq5-cxgaj1-q3rdk1-2ac6cw-fbkx5m-pe0kmm-shdjp3-ta78",
+		"gc:hy1r3z-r//g97g77-j0vnpq-py8rnw-txrc5t-hq4gk2-z8x59c-typ4cf-1s5jr7-3w99pp-0",
+		"gc:hy1r3z-r//g93en7-r0vsd5-skpdf5-xkrbvn-6n9kcp-kryp7y-sfjx7y-5ynjwg-bx5bd9-nh",
+	};
+	
+	private static final String EXPECTED_DIGEST = "fbbef8272cb6269a9243ceb3c5bb7b37185dc75f71f903a8cf1669fe96ed3eaf";
+	
+	@Test
+	public void testSplit() throws Exception {
+		byte[] secret = "wire compatible".getBytes("UTF-8");
+		PerBytePart[] parts = Secrets.splitPerByte(secret, 4, 3, new Random(42L));
+		Assert.assertEquals(EXPECTED.length, parts.length);
+		for(int i = 0; i < parts.length; i++)
+			Assert.assertEquals(EXPECTED[i], VERSION_3.format(parts[i]));
+	}
+	
+	@Test
+	public void testSplitLarge() throws Exception {
+		byte[] secret = new byte[1000];
+		new Random(7L).nextBytes(secret);
+		MessageDigest md = MessageDigest.getInstance("SHA-256");
+		for(PerBytePart part : Secrets.splitPerByte(secret, 20, 7, new Random(99L)))
+			md.update(VERSION_3.format(part).getBytes("UTF-8"));
+		StringBuilder sb = new StringBuilder();
+		for(byte b : md.digest())
+			sb.append(String.format("%02x", b));
+		Assert.assertEquals(EXPECTED_DIGEST, sb.toString());
+	}
+	
+	@Test
+	public void testJoin() throws Exception {
+		Part[] parts = new Part[EXPECTED.length];
+		for(int i = 0; i < parts.length; i++)
+			parts[i] = VERSION_3.parse(EXPECTED[i]);
+		byte[] secret = "wire compatible".getBytes("UTF-8");
+		Assert.assertTrue(Arrays.equals(secret, Secrets.join(Arrays.copyOfRange(parts, 1, 4))));
+		Assert.assertTrue(Arrays.equals(secret, Secrets.join(parts)));
+	}
+	
+	@Test
+	public void testCompactParts() throws Exception {
+		byte[] secret = "wire compatible".getBytes("UTF-8");
+		for(PerBytePart part : Secrets.splitPerByte(secret, 4, 3, new Random(42L))) {
+			PerBytePart parsed = (PerBytePart) VERSION_3.parse(VERSION_3.format(part));
+			Assert.assertArrayEquals(part.getYValues(), parsed.getYValues());
+			Assert.assertEquals(part.getPoint().getX(), parsed.getPoint().getX());
+			Assert.assertEquals(part.getPoint().getY(), parsed.getPoint().getY());
+		}
+	}
+}
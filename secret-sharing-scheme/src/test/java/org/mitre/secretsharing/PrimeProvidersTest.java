@@ -0,0 +1,115 @@
+package org.mitre.secretsharing;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimeProvidersTest {
+	private static final PrimeProvider FAIL = new PrimeProvider() {
+		@Override
+		public BigInteger prime(int bits, Random rnd) {
+			throw new AssertionError("fallback called for " + bits + " bits");
+		}
+	};
+	
+	@Test
+	public void testTable() {
+		PrimeProvider table = PrimeProviders.table(FAIL);
+		int[] sizes = new int[] {1, 2, 3, 4, 8, 16, 32, 33, 63, 64, 96, 128, 192, 256, 384, 512};
+		for(int bytes : sizes) {
+			int bits = bytes * 8 + 1;
+			BigInteger p = table.prime(bits, null);
+			Assert.assertEquals(bits, p.bitLength());
+			Assert.assertTrue(p.isProbablePrime(64));
+		}
+	}
+	
+	@Test
+	public void testSplitWithTable() {
+		Random rnd = new Random(1);
+		byte[] secret = new byte[32];
+		rnd.nextBytes(secret);
+		secret[0] &= 0x7f;
+		Part[] parts = Secrets.splitMultibyte(secret, 5, 3, rnd, PrimeProviders.table(FAIL), null);
+		Assert.assertEquals(PrimeProviders.defaultProvider().prime(257, rnd), parts[0].getModulus());
+		Assert.assertArrayEquals(secret, Secrets.join(Arrays.copyOfRange(parts, 1, 4)));
+	}
+	
+	@Test
+	public void testCached() throws Exception {
+		File file = File.createTempFile("primes", ".txt");
+		try {
+			Assert.assertTrue(file.delete());
+			Random rnd = new Random(2);
+			BigInteger p = PrimeProviders.cached(file, PrimeProviders.random()).prime(100, rnd);
+			Assert.assertEquals(100, p.bitLength());
+			Assert.assertEquals(p, PrimeProviders.cached(file, FAIL).prime(100, rnd));
+		} finally {
+			file.delete();
+		}
+	}
+	
+	@Test
+	public void testPool() throws Exception {
+		PrimeProviders.Pool pool = PrimeProviders.pool(2, 1, PrimeProviders.random()).prefill(77);
+		try {
+			for(int i = 0; i < 100 && pool.available(77) < 2; i++)
+				Thread.sleep(10);
+			Assert.assertEquals(2, pool.available(77));
+			BigInteger p = pool.prime(77, new Random(3));
+			Assert.assertEquals(77, p.bitLength());
+			Assert.assertTrue(p.isProbablePrime(64));
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public void testPoolConcurrent() throws Exception {
+		final PrimeProviders.Pool pool = PrimeProviders.pool(2, 2, PrimeProviders.random());
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<List<BigInteger>>> results = new ArrayList<Future<List<BigInteger>>>();
+			for(int t = 0; t < 8; t++) {
+				final int seed = t;
+				results.add(callers.submit(new Callable<List<BigInteger>>() {
+					@Override
+					public List<BigInteger> call() throws Exception {
+						Random rnd = new Random(seed);
+						List<BigInteger> primes = new ArrayList<BigInteger>();
+						start.await();
+						for(int i = 0; i < 50; i++) {
+							// fresh bit lengths race to create their queues, and a shutdown lands partway through
+							primes.add(pool.prime(40 + (i + seed) % 10, rnd));
+							if(seed == 0 && i == 25)
+								pool.shutdown();
+						}
+						return primes;
+					}
+				}));
+			}
+			start.countDown();
+			for(Future<List<BigInteger>> f : results) {
+				for(BigInteger p : f.get()) {
+					Assert.assertTrue(p.bitLength() >= 40 && p.bitLength() < 50);
+					Assert.assertTrue(p.isProbablePrime(64));
+				}
+			}
+		} finally {
+			callers.shutdown();
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package org.mitre.secretsharing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mitre.secretsharing.util.BytesReadable;
+
+public class SecretStreamsTest {
+	private static byte[] secret(int length) {
+		byte[] b = new byte[length];
+		new Random(length).nextBytes(b);
+		return b;
+	}
+	
+	private static ByteArrayOutputStream[] split(byte[] secret, int totalParts, int requiredParts) throws IOException {
+		ByteArrayOutputStream[] out = new ByteArrayOutputStream[totalParts];
+		for(int j = 0; j < totalParts; j++)
+			out[j] = new ByteArrayOutputStream();
+		long n = SecretStreams.split(new ByteArrayInputStream(secret), (OutputStream[]) out, requiredParts, new Random(0L));
+		Assert.assertEquals(secret.length, n);
+		return out;
+	}
+	
+	private static Gf256Part toPart(byte[] share) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(share));
+		byte[] h = new byte[in.readInt()];
+		in.readFully(h);
+		BytesReadable r = new BytesReadable(h);
+		Assert.assertEquals(SecretStreams.VERSION, r.readInt());
+		int requiredParts = r.readInt();
+		Assert.assertEquals(BigInteger.valueOf(-2), r.readBigInteger());
+		r.readBigInteger();
+		BigInteger x = r.readBigInteger();
+		byte[] y = Arrays.copyOfRange(share, 4 + h.length, share.length);
+		return new Gf256Part(0, y.length, requiredParts, new BigPoint(x, new BigInteger(1, y)));
+	}
+	
+	@Test
+	public void testSplit() throws IOException {
+		for(int length : new int[] {0, 1, 1000, (1 << 16) + 17, 3 << 16}) {
+			byte[] secret = secret(length);
+			ByteArrayOutputStream[] out = split(secret, 5, 3);
+			Gf256Part[] parts = new Gf256Part[3];
+			for(int j = 0; j < 3; j++)
+				parts[j] = toPart(out[j + 2].toByteArray());
+			Assert.assertArrayEquals(secret, Secrets.joinGf256(parts));
+		}
+	}
+	
+	private static InputStream[] inputs(ByteArrayOutputStream[] out, int from, int to) {
+		InputStream[] in = new InputStream[to - from];
+		for(int i = from; i < to; i++)
+			in[i - from] = new ByteArrayInputStream(out[i].toByteArray());
+		return in;
+	}
+	
+	@Test
+	public void testJoin() throws IOException {
+		for(int length : new int[] {0, 1, 1000, (1 << 16) + 17, 3 << 16}) {
+			byte[] secret = secret(length);
+			ByteArrayOutputStream[] out = split(secret, 6, 4);
+			ByteArrayOutputStream joined = new ByteArrayOutputStream();
+			Assert.assertEquals(length, SecretStreams.join(inputs(out, 1, 5), joined));
+			Assert.assertArrayEquals(secret, joined.toByteArray());
+		}
+	}
+	
+	@Test
+	public void testJoinReadsOnlyRequiredShares() throws IOException {
+		byte[] secret = secret(100000);
+		ByteArrayOutputStream[] out = split(secret, 5, 3);
+		InputStream[] in = inputs(out, 0, 5);
+		// an extra share that ends early is never read past its header
+		byte[] extra = out[4].toByteArray();
+		in[4] = new ByteArrayInputStream(Arrays.copyOf(extra, extra.length - 10));
+		ByteArrayOutputStream joined = new ByteArrayOutputStream();
+		Assert.assertEquals(secret.length, SecretStreams.join(in, joined));
+		Assert.assertArrayEquals(secret, joined.toByteArray());
+		Assert.assertEquals(secret.length, in[3].available());
+		Assert.assertEquals(secret.length - 10, in[4].available());
+	}
+	
+	@Test
+	public void testTruncatedAfterFirstChunk() throws IOException {
+		byte[] secret = secret((1 << 16) + 100);
+		ByteArrayOutputStream[] out = split(secret, 3, 2);
+		byte[] share = out[1].toByteArray();
+		InputStream[] in = {
+			new ByteArrayInputStream(out[0].toByteArray()),
+			new ByteArrayInputStream(Arrays.copyOf(share, share.length - 1)),
+		};
+		ByteArrayOutputStream joined = new ByteArrayOutputStream();
+		try {
+			SecretStreams.join(in, joined);
+			Assert.fail("truncated share joined");
+		} catch(IllegalArgumentException e) {
+			// the chunks before the truncated one have already been written
+			Assert.assertArrayEquals(Arrays.copyOf(secret, 1 << 16), joined.toByteArray());
+		}
+	}
+	
+	@Test
+	public void testChannels() throws IOException {
+		byte[] secret = secret(100000);
+		ByteArrayOutputStream[] out = new ByteArrayOutputStream[3];
+		WritableByteChannel[] shares = new WritableByteChannel[3];
+		for(int j = 0; j < 3; j++)
+			shares[j] = Channels.newChannel(out[j] = new ByteArrayOutputStream());
+		SecretStreams.split(Channels.newChannel(new ByteArrayInputStream(secret)), shares, 2, new Random(1L));
+		InputStream[] in = inputs(out, 0, 2);
+		ReadableByteChannel[] ch = new ReadableByteChannel[in.length];
+		for(int i = 0; i < in.length; i++)
+			ch[i] = Channels.newChannel(in[i]);
+		ByteArrayOutputStream joined = new ByteArrayOutputStream();
+		SecretStreams.join(ch, Channels.newChannel(joined));
+		Assert.assertArrayEquals(secret, joined.toByteArray());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentSplits() throws IOException {
+		byte[] secret = secret(100);
+		InputStream[] a = inputs(split(secret, 3, 2), 0, 1);
+		ByteArrayOutputStream[] other = new ByteArrayOutputStream[3];
+		for(int j = 0; j < 3; j++)
+			other[j] = new ByteArrayOutputStream();
+		SecretStreams.split(new ByteArrayInputStream(secret), (OutputStream[]) other, 2, new Random(5L));
+		InputStream[] b = inputs(other, 1, 2);
+		SecretStreams.join(new InputStream[] {a[0], b[0]}, new ByteArrayOutputStream());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testTruncated() throws IOException {
+		ByteArrayOutputStream[] out = split(secret(100), 3, 2);
+		byte[] share = out[1].toByteArray();
+		InputStream[] in = {
+			new ByteArrayInputStream(out[0].toByteArray()),
+			new ByteArrayInputStream(Arrays.copyOf(share, share.length - 1)),
+		};
+		SecretStreams.join(in, new ByteArrayOutputStream());
+	}
+}
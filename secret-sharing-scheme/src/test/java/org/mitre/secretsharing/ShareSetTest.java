@@ -0,0 +1,87 @@
+package org.mitre.secretsharing;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mitre.secretsharing.codec.PartFormats;
+import org.mitre.secretsharing.util.InputValidationException;
+
+public class ShareSetTest {
+	@Test
+	public void testJoin() {
+		Random rnd = new Random(0L);
+		ShareSet set = new ShareSet();
+		byte[][] secrets = new byte[100][];
+		for(int i = 0; i < secrets.length; i++) {
+			secrets[i] = TestParts.secret(rnd, 1 + i % 70);
+			Part[] parts = TestParts.split(i % TestParts.MODES, secrets[i], 5, 3, rnd);
+			Assert.assertEquals(i, set.add(Arrays.copyOfRange(parts, i % 3, i % 3 + 3)));
+		}
+		Assert.assertEquals(secrets.length, set.size());
+		byte[][] joined = set.joinAll();
+		for(int i = 0; i < secrets.length; i++) {
+			Assert.assertArrayEquals(secrets[i], joined[i]);
+			Assert.assertEquals(3, set.getPartCount(i));
+			Assert.assertEquals(secrets[i].length, set.getLength(i));
+		}
+	}
+	
+	@Test
+	public void testAddLeavesCompactPartsUnpacked() throws Exception {
+		Random rnd = new Random(4L);
+		byte[] secret = TestParts.secret(rnd, 100);
+		PerBytePart[] parts = Secrets.splitPerByte(secret, 5, 3, rnd);
+		ShareSet set = new ShareSet();
+		set.add(parts);
+		Assert.assertArrayEquals(secret, set.join(0));
+		for(PerBytePart part : parts) {
+			Assert.assertTrue(part.isCompact());
+			Field point = part.getPrivatePart().getClass().getDeclaredField("point");
+			point.setAccessible(true);
+			Assert.assertNull(point.get(part.getPrivatePart()));
+		}
+	}
+	
+	@Test
+	public void testViews() {
+		Random rnd = new Random(1L);
+		ShareSet set = new ShareSet();
+		for(int mode = 0; mode < TestParts.MODES; mode++) {
+			byte[] secret = TestParts.secret(rnd, 40);
+			Part[] parts = TestParts.split(mode, secret, 5, 3, rnd);
+			int i = set.add(parts);
+			Part[] views = set.getParts(i);
+			for(int j = 0; j < parts.length; j++) {
+				Assert.assertSame(parts[j].getClass(), views[j].getClass());
+				Assert.assertEquals(parts[j].getPoint().getX(), views[j].getPoint().getX());
+				Assert.assertEquals(parts[j].getPoint().getY(), views[j].getPoint().getY());
+				Assert.assertEquals(parts[j].getModulus(), views[j].getModulus());
+				Assert.assertEquals(parts[j].toString(), views[j].toString());
+				Assert.assertArrayEquals(PartFormats.currentBytesFormat().format(parts[j]), PartFormats.currentBytesFormat().format(views[j]));
+			}
+			Assert.assertArrayEquals(secret, Secrets.join(Arrays.copyOf(views, 3)));
+		}
+	}
+	
+	@Test(expected = InputValidationException.class)
+	public void testTooFewParts() {
+		ShareSet set = new ShareSet();
+		set.add(Arrays.copyOf(Secrets.splitGf256(new byte[10], 5, 3, new Random(0L)), 2));
+		set.join(0);
+	}
+	
+	@Test(expected = InputValidationException.class)
+	public void testMixedParts() {
+		Random rnd = new Random(0L);
+		new ShareSet().add(Secrets.splitGf256(new byte[10], 5, 3, rnd)[0], Secrets.splitM61(new byte[10], 5, 3, rnd)[1]);
+	}
+	
+	@Test(expected = InputValidationException.class)
+	public void testDuplicateX() {
+		Part part = Secrets.splitPerByte(new byte[10], 5, 3, new Random(0L))[0];
+		new ShareSet().add(part, part);
+	}
+}
@@ -0,0 +1,88 @@
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TermPolynomialBuilderTest {
+	private static TermPolynomial random(Random rnd, int length, BigInteger modulus) {
+		Term[] terms = new Term[length];
+		for(int i = 0; i < length; i++)
+			terms[i] = new Term(BigInteger.valueOf(rnd.nextInt(2001) - 1000), BigInteger.valueOf(1 + rnd.nextInt(50)));
+		return new TermPolynomial(terms, modulus);
+	}
+	
+	/**
+	 * The product as a sum of partial products
+	 */
+	private static TermPolynomial product(TermPolynomial a, TermPolynomial b) {
+		TermPolynomial result = TermPolynomial.ZERO;
+		Term[] terms = a.getTerms();
+		for(int i = 0; i < terms.length; i++)
+			result = result.add(b.multiply(terms[i], i));
+		return result;
+	}
+	
+	@Test
+	public void testMultiply() {
+		Random rnd = new Random(0L);
+		for(int n = 0; n < 6; n++) {
+			for(int m = 0; m < 6; m++) {
+				TermPolynomial a = random(rnd, n, null);
+				TermPolynomial b = random(rnd, m, m % 2 == 0 ? null : BigInteger.valueOf(10007));
+				Assert.assertEquals(product(a, b), a.multiply(b));
+			}
+		}
+	}
+	
+	@Test
+	public void testBuilder() {
+		Random rnd = new Random(1L);
+		TermPolynomial a = random(rnd, 4, null);
+		TermPolynomial b = random(rnd, 3, null);
+		TermPolynomial c = random(rnd, 5, null);
+		Term t = new Term(BigInteger.valueOf(3), BigInteger.valueOf(7));
+		TermPolynomial expected = a.multiply(b).add(c).multiply(t, 2).multiply(BigInteger.TEN);
+		TermPolynomialBuilder builder = new TermPolynomialBuilder(a).multiply(b).add(c).multiply(t, 2).multiply(BigInteger.TEN);
+		Assert.assertEquals(expected, builder.build());
+		Assert.assertEquals(expected.getTerms().length, builder.length());
+		// the builder may be used again after building
+		builder.add(Term.ONE, 0);
+		Assert.assertEquals(expected.add(TermPolynomial.ONE), builder.build());
+		Assert.assertEquals(0, builder.clear().length());
+		Assert.assertEquals(Term.ZERO, builder.getTerm(3));
+	}
+	
+	@Test
+	public void testModulus() {
+		Random rnd = new Random(2L);
+		BigInteger m = BigInteger.valueOf(65521);
+		TermPolynomialBuilder builder = new TermPolynomialBuilder(m);
+		for(int i = 0; i < 5; i++)
+			builder.add(new Term(BigInteger.valueOf(rnd.nextInt())), i);
+		TermPolynomial p = builder.build();
+		Assert.assertEquals(m, p.getModulus());
+		for(Term t : p.getTerms())
+			Assert.assertTrue(t.isWhole() && t.getNumerator().signum() >= 0 && t.getNumerator().compareTo(m) < 0);
+		Assert.assertEquals(new TermPolynomial(p.getTerms(), m), p);
+	}
+	
+	@Test
+	public void testToStringLeavesTermsUnreduced() {
+		TermPolynomialBuilder builder = new TermPolynomialBuilder(BigInteger.valueOf(7));
+		builder.add(new Term(BigInteger.TEN), 0).add(new Term(BigInteger.valueOf(15)), 1);
+		String s = builder.toString();
+		Assert.assertEquals(new Term(BigInteger.TEN), builder.getTerm(0));
+		Assert.assertEquals(new Term(BigInteger.valueOf(15)), builder.getTerm(1));
+		Assert.assertEquals(builder.build().toString(), s);
+	}
+	
+	@Test
+	public void testTermsNotShared() {
+		TermPolynomial p = new TermPolynomialBuilder().add(Term.ONE, 1).build();
+		p.getTerms()[1] = Term.ZERO;
+		Assert.assertEquals(Term.ONE, p.getTerms()[1]);
+	}
+}
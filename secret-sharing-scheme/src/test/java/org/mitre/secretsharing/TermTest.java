@@ -0,0 +1,56 @@
+package org.mitre.secretsharing;
+
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TermTest {
+	private static Term t(long n, long d) {
+		return new Term(BigInteger.valueOf(n), BigInteger.valueOf(d));
+	}
+	
+	@Test
+	public void testObservedInLowestTerms() {
+		Term t = t(6, -4);
+		Assert.assertEquals(BigInteger.valueOf(-3), t.getNumerator());
+		Assert.assertEquals(BigInteger.valueOf(2), t.getDenominator());
+		Assert.assertEquals("(-3/2)", t.toString());
+		Assert.assertEquals(t(-3, 2), t);
+		Assert.assertEquals(t(-3, 2).hashCode(), t.hashCode());
+	}
+	
+	@Test
+	public void testArithmetic() {
+		Term sum = t(1, 6).add(t(1, 3)).add(t(1, 2));
+		Assert.assertTrue(sum.isWhole());
+		Assert.assertEquals(BigInteger.ONE, sum.whole());
+		Assert.assertEquals(Term.ZERO, t(2, 4).subtract(t(1, 2)));
+		Assert.assertEquals(t(1, 3), t(2, 9).multiply(t(3, 2)));
+		Assert.assertEquals(t(5, 3), t(10, 6).multiply(BigInteger.ONE));
+		Assert.assertEquals(t(1, 2), t(14, 4).mod(BigInteger.valueOf(3)));
+	}
+	
+	@Test
+	public void testCompareTo() {
+		Assert.assertTrue(t(1, 3).compareTo(t(1, 2)) < 0);
+		Assert.assertTrue(t(-1, 2).compareTo(t(1, -3)) < 0);
+		Assert.assertEquals(0, t(2, 4).compareTo(t(-3, -6)));
+		Assert.assertTrue(t(5, 1).compareTo(t(9, 2)) > 0);
+	}
+	
+	@Test
+	public void testLargeDenominatorsReduced() {
+		// a denominator that would double in size with every step if never reduced
+		Term t = Term.ONE;
+		BigInteger d = BigInteger.ONE.shiftLeft(100).add(BigInteger.ONE);
+		for(int i = 0; i < 50; i++)
+			t = t.multiply(new Term(d, BigInteger.ONE)).multiply(new Term(BigInteger.ONE, d));
+		Assert.assertEquals(Term.ONE, t);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroDenominator() {
+		t(1, 0);
+	}
+}
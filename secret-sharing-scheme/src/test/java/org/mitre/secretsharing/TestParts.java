@@ -0,0 +1,64 @@
+package org.mitre.secretsharing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Secrets and parts shared by the tests that run against every split mode
+ */
+final class TestParts {
+	/**
+	 * The number of split modes, for {@link #split(int, byte[], int, int, Random)}
+	 */
+	static final int MODES = 5;
+	
+	static byte[] secret(Random rnd, int length) {
+		byte[] b = new byte[length];
+		rnd.nextBytes(b);
+		// multibyte secrets must be nonnegative
+		if(length > 0)
+			b[0] &= 0x7f;
+		return b;
+	}
+	
+	static Part[] split(int mode, byte[] secret, int n, int k, Random rnd) {
+		switch(mode) {
+		case 0:
+			return Secrets.split(secret, n, k, rnd);
+		case 1:
+			return Secrets.splitPerByte(secret, n, k, rnd);
+		case 2:
+			return Secrets.splitGf256(secret, n, k, rnd);
+		case 3:
+			return Secrets.splitM61(secret, n, k, rnd);
+		default:
+			return Secrets.splitBlocks(secret, n, k, rnd);
+		}
+	}
+	
+	static List<Part[]> splits(byte[] secret, int n, int k, Random rnd) {
+		List<Part[]> splits = new ArrayList<Part[]>();
+		for(int mode = 0; mode < MODES; mode++)
+			splits.add(split(mode, secret, n, k, rnd));
+		return splits;
+	}
+	
+	/**
+	 * Return a copy of a part with the low bit of its Y coordinate flipped
+	 */
+	static Part tamper(Part part) {
+		BigPoint point = new BigPoint(part.getPoint().getX(), part.getPoint().getY().flipBit(0));
+		if(part instanceof PerBytePart)
+			return new PerBytePart(part.getVersion(), part.getLength(), part.getRequiredParts(), point);
+		if(part instanceof Gf256Part)
+			return new Gf256Part(part.getVersion(), part.getLength(), part.getRequiredParts(), point);
+		if(part instanceof M61Part)
+			return new M61Part(part.getVersion(), part.getLength(), part.getRequiredParts(), point);
+		if(part instanceof BlockPart)
+			return new BlockPart(part.getVersion(), part.getLength(), part.getRequiredParts(), ((BlockPart) part).getPrimeId(), point);
+		return new Part(part.getVersion(), part.getLength(), part.getRequiredParts(), part.getModulus(), point);
+	}
+	
+	private TestParts() {}
+}
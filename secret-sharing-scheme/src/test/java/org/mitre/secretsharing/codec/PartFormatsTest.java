@@ -0,0 +1,90 @@
+/*
+
+Copyright 2014 The MITRE Corporation
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+This project contains content developed by The MITRE Corporation. If this 
+code is used in a deployment or embedded within another project, it is 
+requested that you send an email to opensource@mitre.org in order to let 
+us know where this software is being used.
+
+ */
+
+package org.mitre.secretsharing.codec;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mitre.secretsharing.Part;
+import org.mitre.secretsharing.Secrets;
+
+public class PartFormatsTest {
+	private static final byte[] SECRET = "format version table".getBytes();
+	
+	/**
+	 * One row per part type: a part, the oldest string and bytes versions that accept it,
+	 * and the string and bytes versions it is written in
+	 */
+	private static Object[][] table() {
+		Random rnd = new Random(0L);
+		return new Object[][] {
+			{Secrets.splitMultibyte(SECRET, 5, 3, rnd)[0], 0, 0, 3, 2},
+			{Secrets.splitPerByte(SECRET, 5, 3, rnd)[0], 0, 0, 3, 2},
+			{Secrets.splitGf256(SECRET, 5, 3, rnd)[0], 4, 3, 4, 3},
+			{Secrets.splitBlocks(SECRET, 5, 3, rnd)[0], 5, 4, 5, 4},
+			{Secrets.splitM61(SECRET, 5, 3, rnd)[0], 6, 5, 6, 5},
+		};
+	}
+	
+	@Test
+	public void testOlderFormatsReject() {
+		for(Object[] row : table()) {
+			Part part = (Part) row[0];
+			for(PartFormats.StringFormats f : PartFormats.StringFormats.values()) {
+				try {
+					f.format(part);
+					Assert.assertTrue(f + " formatted a " + part.getClass().getSimpleName(), f.getVersion() >= (Integer) row[1]);
+				} catch(IllegalArgumentException e) {
+					Assert.assertTrue(f + " rejected a " + part.getClass().getSimpleName(), f.getVersion() < (Integer) row[1]);
+				}
+			}
+			for(PartFormats.BytesFormats f : PartFormats.BytesFormats.values()) {
+				try {
+					f.format(part);
+					Assert.assertTrue(f + " formatted a " + part.getClass().getSimpleName(), f.getVersion() >= (Integer) row[2]);
+				} catch(IllegalArgumentException e) {
+					Assert.assertTrue(f + " rejected a " + part.getClass().getSimpleName(), f.getVersion() < (Integer) row[2]);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testOldestFormat() {
+		for(Object[] row : table()) {
+			Part part = (Part) row[0];
+			Assert.assertEquals(row[3], PartFormats.stringFormat(part).getVersion());
+			Assert.assertEquals(row[4], PartFormats.bytesFormat(part).getVersion());
+			Assert.assertEquals(PartFormats.stringFormat(part).format(part), part.toString());
+			
+			Part fromString = PartFormats.parse(part.toString());
+			Part fromBytes = PartFormats.parse(PartFormats.bytesFormat(part).format(part));
+			Assert.assertEquals(part.getClass(), fromString.getClass());
+			Assert.assertEquals(part.getClass(), fromBytes.getClass());
+			Assert.assertEquals(part.toString(), fromString.toString());
+			Assert.assertEquals(part.toString(), fromBytes.toString());
+		}
+	}
+}
@@ -33,4 +33,55 @@ public class BigIntegersTest {
 				));
 		Assert.assertEquals(expected, numerals);
 	}
+	
+	@Test
+	public void testModInverse() {
+		BigInteger m = BigInteger.valueOf(65521);
+		BigInteger[] vals = BigIntegers.range(1, 200);
+		BigInteger[] inv = BigIntegers.modInverse(vals, m);
+		for(int i = 0; i < vals.length; i++)
+			Assert.assertEquals(vals[i].modInverse(m), inv[i]);
+	}
+	
+	@Test
+	public void testLagrangeWeights() {
+		// y = 7 + 3x + 5x^2 (mod 101)
+		BigInteger m = BigInteger.valueOf(101);
+		BigInteger[] x = BigIntegers.range(3, 6);
+		BigInteger[] w = BigIntegers.lagrangeWeights(x, m);
+		BigInteger s = BigInteger.ZERO;
+		for(int i = 0; i < x.length; i++) {
+			BigInteger y = BigInteger.valueOf(7).add(x[i].multiply(BigInteger.valueOf(3))).add(x[i].pow(2).multiply(BigInteger.valueOf(5)));
+			s = s.add(w[i].multiply(y));
+		}
+		Assert.assertEquals(BigInteger.valueOf(7), s.mod(m));
+	}
+	
+	@Test
+	public void testModInverseOfSmall() {
+		BigInteger m = BigInteger.ONE.shiftLeft(256).add(BigInteger.valueOf(297));
+		for(long a : new long[] {1, 2, 3, 362880, 1L << 40, 999999999989L})
+			Assert.assertEquals(BigInteger.valueOf(a).modInverse(m), BigIntegers.modInverseOfSmall(BigInteger.valueOf(a), m));
+	}
+	
+	@Test
+	public void testLagrangeZero() {
+		Random rnd = new Random(0L);
+		BigInteger m = BigInteger.probablePrime(127, rnd);
+		BigInteger[] c = BigIntegers.random(BigInteger.ONE, m, rnd, 5, m.bitLength());
+		BigInteger[][] xs = {
+			BigIntegers.range(1, 6),
+			new BigInteger[] {BigInteger.valueOf(9), BigInteger.valueOf(2), BigInteger.valueOf(40), BigInteger.valueOf(7), BigInteger.valueOf(13)},
+			BigIntegers.random(BigInteger.ONE, m, rnd, 5, m.bitLength()),
+		};
+		for(BigInteger[] x : xs) {
+			BigInteger[] y = new BigInteger[x.length];
+			for(int i = 0; i < x.length; i++) {
+				y[i] = BigInteger.ZERO;
+				for(int d = c.length - 1; d >= 0; d--)
+					y[i] = y[i].multiply(x[i]).add(c[d]).mod(m);
+			}
+			Assert.assertEquals(c[0], BigIntegers.lagrangeZero(x, y, m));
+		}
+	}
 }
@@ -0,0 +1,35 @@
+package org.mitre.secretsharing.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InputValidationTest {
+	@Test
+	public void testCheckPasses() {
+		InputValidation.check(false, "a");
+		InputValidation.check(false, "a", false, "b");
+		InputValidation.check(false, "a", false, "b", false, "c");
+		InputValidation.check(false, "a", false, "b", false, "c", false, "d");
+	}
+	
+	@Test
+	public void testCheckFails() {
+		try {
+			InputValidation.check(true, "a");
+			Assert.fail();
+		} catch(InputValidationException e) {
+			Assert.assertEquals("a", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testCheckAccumulates() {
+		try {
+			InputValidation.check(true, "a", false, "b", true, "c", true, "d");
+			Assert.fail();
+		} catch(InputValidationException e) {
+			Assert.assertEquals(InputValidation.begin().when(true, "a").when(true, "c").when(true, "d").getFailure().getMessage(), e.getMessage());
+			Assert.assertEquals("a, c, d", e.getMessage());
+		}
+	}
+}
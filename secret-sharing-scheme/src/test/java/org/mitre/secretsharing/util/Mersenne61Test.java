@@ -0,0 +1,30 @@
+package org.mitre.secretsharing.util;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Mersenne61Test {
+	private static final BigInteger P = BigInteger.valueOf(Mersenne61.P);
+	
+	@Test
+	public void testMul() {
+		Random rnd = new Random(0L);
+		long[] edge = {0, 1, 2, Mersenne61.P - 1, Mersenne61.P - 2, 1L << 60, (1L << 32) - 1};
+		for(int i = 0; i < 10000; i++) {
+			long a = i < edge.length ? edge[i] : (rnd.nextLong() >>> 3) % Mersenne61.P;
+			long b = i < edge.length ? edge[edge.length - 1 - i] : (rnd.nextLong() >>> 3) % Mersenne61.P;
+			BigInteger ab = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b));
+			Assert.assertEquals(ab.shiftRight(64).longValue(), Mersenne61.multiplyHigh(a, b));
+			Assert.assertEquals(ab.mod(P).longValue(), Mersenne61.mul(a, b));
+		}
+	}
+	
+	@Test
+	public void testInverse() {
+		for(long a : new long[] {1, 2, 3, 65521, Mersenne61.P - 1})
+			Assert.assertEquals(1, Mersenne61.mul(a, Mersenne61.inverse(a)));
+	}
+}
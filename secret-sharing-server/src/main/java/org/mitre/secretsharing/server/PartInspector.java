@@ -60,14 +60,9 @@ public abstract class PartInspector {
 		case x: return String.format("%04X", part.getPoint().getX());
 		case y: {
 			if(part instanceof PerBytePart) {
-				byte[] b = part.getPoint().getY().toByteArray();
 				List<String> ys = new ArrayList<>();
-				for(int i = 0; i < part.getLength(); i++) {
-					byte b0 = b[b.length - 1 - 2 * i];
-					byte b1 = b[b.length - 2 - 2 * i];
-					int v = ((0xFF & b1) << 8) | (0xFF & b0);
-					ys.add(0, String.format("%04X", v));
-				}
+				for(char v : ((PerBytePart) part).getYValues())
+					ys.add(String.format("%04X", (int) v));
 				return StringUtils.join(ys, ",");
 			} else
 				return String.format("%04X", part.getPoint().getY());